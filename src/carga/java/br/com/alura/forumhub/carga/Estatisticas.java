@@ -0,0 +1,75 @@
+package br.com.alura.forumhub.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Um histograma por endpoint, em microssegundos, de 1µs até 1 minuto com 3 dígitos de precisão
+public class Estatisticas {
+
+    private static final long MAXIMO_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final Map<Operacao, Histogram> latencias = new EnumMap<>(Operacao.class);
+    private final Map<Operacao, LongAdder> erros = new EnumMap<>(Operacao.class);
+
+    public Estatisticas() {
+        for (var operacao : Operacao.values()) {
+            latencias.put(operacao, new ConcurrentHistogram(1, MAXIMO_MICROS, 3));
+            erros.put(operacao, new LongAdder());
+        }
+    }
+
+    public void registrar(Operacao operacao, long nanos, boolean sucesso) {
+        if (!sucesso) {
+            erros.get(operacao).increment();
+            return;
+        }
+        latencias.get(operacao).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAXIMO_MICROS));
+    }
+
+    public void imprimir(PrintStream saida, Duration duracao) {
+        saida.printf("%n%-30s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "req", "erros", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        var total = 0L;
+        for (var operacao : Operacao.values()) {
+            var histograma = latencias.get(operacao);
+            var quantidade = histograma.getTotalCount();
+            total += quantidade;
+            saida.printf("%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operacao.getDescricao(),
+                    quantidade,
+                    erros.get(operacao).sum(),
+                    quantidade / (double) duracao.toSeconds(),
+                    millis(histograma.getValueAtPercentile(50)),
+                    millis(histograma.getValueAtPercentile(90)),
+                    millis(histograma.getValueAtPercentile(99)),
+                    millis(histograma.getValueAtPercentile(99.9)),
+                    millis(histograma.getMaxValue()));
+        }
+        saida.printf("%-30s %9d %7s %9.1f%n", "total", total, "", total / (double) duracao.toSeconds());
+    }
+
+    // Distribuição completa no formato .hgrm, que pode ser plotada e comparada entre versões
+    public void salvar(Path diretorio) throws IOException {
+        Files.createDirectories(diretorio);
+        for (var operacao : Operacao.values()) {
+            try (var saida = new PrintStream(Files.newOutputStream(diretorio.resolve(operacao.name().toLowerCase() + ".hgrm")))) {
+                latencias.get(operacao).outputPercentileDistribution(saida, 1000.0);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,71 @@
+package br.com.alura.forumhub.carga;
+
+import br.com.alura.forumhub.model.Resposta;
+import br.com.alura.forumhub.model.StatusTopico;
+import br.com.alura.forumhub.model.Topico;
+import br.com.alura.forumhub.model.Usuario;
+import br.com.alura.forumhub.repository.UsuarioRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+public record MassaDeDados(List<String> logins, List<Long> idsTopicos) {
+
+    public static final String SENHA = "senha-carga";
+
+    private static final int TAMANHO_LOTE = 500;
+    private static final String[] CURSOS = {"Spring Boot", "Java", "JPA", "Docker", "Kotlin"};
+
+    public static MassaDeDados popular(ApplicationContext contexto, int usuarios, int topicos, int respostasPorTopico) {
+        var usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        var em = contexto.getBean(EntityManager.class);
+        var transacao = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+
+        // Um único hash para todos: o BCrypt de milhares de usuários dominaria o tempo de preparação
+        var senha = contexto.getBean(PasswordEncoder.class).encode(SENHA);
+        List<Usuario> autores = new ArrayList<>(usuarios);
+        List<String> logins = new ArrayList<>(usuarios);
+        for (int i = 0; i < usuarios; i++) {
+            var usuario = usuarioRepository.save(new Usuario(null, "carga" + i + "@forumhub.com", senha));
+            autores.add(usuario);
+            logins.add(usuario.getLogin());
+        }
+
+        var aleatorio = ThreadLocalRandom.current();
+        var inicio = LocalDateTime.now().minusYears(2);
+        List<Long> idsTopicos = new ArrayList<>(topicos);
+        for (int lote = 0; lote < topicos; lote += TAMANHO_LOTE) {
+            var primeiro = lote;
+            var ultimo = Math.min(topicos, lote + TAMANHO_LOTE);
+            transacao.executeWithoutResult(tx -> {
+                for (int i = primeiro; i < ultimo; i++) {
+                    var autor = autores.get(aleatorio.nextInt(autores.size()));
+                    var dataCriacao = inicio.plusMinutes(i * 10L);
+                    var status = respostasPorTopico > 0 ? StatusTopico.NAO_SOLUCIONADO : StatusTopico.NAO_RESPONDIDO;
+                    var topico = new Topico(null, "Tópico de carga " + i, "Mensagem do tópico de carga número " + i, true,
+                            dataCriacao, status, null, autor.getLogin(), CURSOS[i % CURSOS.length], null,
+                            respostasPorTopico, dataCriacao.plusMinutes(respostasPorTopico));
+                    em.persist(topico);
+
+                    for (int r = 0; r < respostasPorTopico; r++) {
+                        var autorResposta = em.getReference(Usuario.class, autores.get(aleatorio.nextInt(autores.size())).getId());
+                        em.persist(new Resposta(null, "Resposta " + r + " ao tópico " + i, topico,
+                                dataCriacao.plusMinutes(r + 1), autorResposta, false));
+                    }
+                    idsTopicos.add(topico.getId());
+                }
+                em.flush();
+                em.clear();
+            });
+        }
+
+        return new MassaDeDados(logins, idsTopicos);
+    }
+}
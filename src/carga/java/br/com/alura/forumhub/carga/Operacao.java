@@ -0,0 +1,19 @@
+package br.com.alura.forumhub.carga;
+
+public enum Operacao {
+    LOGIN("POST /login"),
+    LISTAR_TOPICOS("GET /topicos"),
+    DETALHAR_TOPICO("GET /topicos/{id}"),
+    LISTAR_RESPOSTAS("GET /topicos/{id}/respostas"),
+    RESPONDER("POST /topicos/{id}/respostas");
+
+    private final String descricao;
+
+    Operacao(String descricao) {
+        this.descricao = descricao;
+    }
+
+    public String getDescricao() {
+        return descricao;
+    }
+}
@@ -0,0 +1,232 @@
+package br.com.alura.forumhub.carga;
+
+import br.com.alura.forumhub.ForumhubApplication;
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Sobe um MariaDB embutido, inicia a aplicação contra ele (Flyway aplica db/migration), popula a base e
+// dispara uma mistura de login, listagem, detalhe e respostas, medindo a latência por endpoint com HdrHistogram
+public class TesteCarga {
+
+    private static final int USUARIOS = Integer.getInteger("carga.usuarios", 200);
+    private static final int TOPICOS = Integer.getInteger("carga.topicos", 5_000);
+    private static final int RESPOSTAS_POR_TOPICO = Integer.getInteger("carga.respostas-por-topico", 5);
+    private static final int USUARIOS_VIRTUAIS = Integer.getInteger("carga.usuarios-virtuais", 32);
+    // Requisições por segundo somadas de todos os usuários virtuais, em horários fixos (malha aberta).
+    // 0 volta à malha fechada: cada usuário só envia após a resposta anterior
+    private static final int TAXA = Integer.getInteger("carga.taxa", 500);
+    private static final Duration AQUECIMENTO = Duration.ofSeconds(Long.getLong("carga.aquecimento", 15));
+    private static final Duration DURACAO = Duration.ofSeconds(Long.getLong("carga.duracao", 60));
+    // Perfil Spring da aplicação sob teste (ex.: prod), para comparar a configuração de pool e driver com o padrão
+    private static final String PERFIL = System.getProperty("carga.perfil", "");
+    private static final Path DIRETORIO_RESULTADOS = Path.of(System.getProperty("carga.resultados",
+            "target/carga/" + (PERFIL.isBlank() ? "padrao" : PERFIL)));
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient cliente = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private String baseUrl;
+    private MassaDeDados massa;
+
+    public static void main(String[] args) throws Exception {
+        new TesteCarga().executar();
+    }
+
+    private void executar() throws Exception {
+        var configuracao = DBConfigurationBuilder.newBuilder().setPort(0).build();
+        var banco = DB.newEmbeddedDB(configuracao);
+        banco.start();
+        banco.createDB("forumhub");
+
+        try (var contexto = iniciarAplicacao(configuracao.getPort())) {
+            baseUrl = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+
+            System.out.printf("Populando: %d usuários, %d tópicos, %d respostas por tópico...%n", USUARIOS, TOPICOS, RESPOSTAS_POR_TOPICO);
+            massa = MassaDeDados.popular(contexto, USUARIOS, TOPICOS, RESPOSTAS_POR_TOPICO);
+
+            System.out.printf("Aquecendo por %ds com %d usuários virtuais...%n", AQUECIMENTO.toSeconds(), USUARIOS_VIRTUAIS);
+            rodar(AQUECIMENTO, new Estatisticas());
+
+            System.out.printf("Medindo por %ds...%n", DURACAO.toSeconds());
+            var estatisticas = new Estatisticas();
+            rodar(DURACAO, estatisticas);
+
+            imprimirModo();
+            estatisticas.imprimir(System.out, DURACAO);
+            estatisticas.salvar(DIRETORIO_RESULTADOS);
+            System.out.println("Histogramas completos em " + DIRETORIO_RESULTADOS.toAbsolutePath());
+        } finally {
+            banco.stop();
+        }
+    }
+
+    private ConfigurableApplicationContext iniciarAplicacao(int portaBanco) {
+        var aplicacao = new SpringApplicationBuilder(ForumhubApplication.class);
+        if (!PERFIL.isBlank()) {
+            aplicacao.profiles(PERFIL);
+        }
+        // Propriedades padrão: as do perfil escolhido (ex.: hibernate.jdbc.batch_size do prod) prevalecem
+        return aplicacao
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:mysql://localhost:" + portaBanco + "/forumhub?useSSL=false",
+                        "spring.datasource.username=root",
+                        "spring.datasource.password=",
+                        // O dialeto do MariaDB usaria sequências nativas; o schema usa tabelas de sequência como no MySQL
+                        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+                        "spring.jpa.hibernate.ddl-auto=validate",
+                        "spring.jpa.properties.hibernate.jdbc.batch_size=500",
+                        "spring.jpa.properties.hibernate.order_inserts=true",
+                        "api_key=chave-do-teste-de-carga",
+                        // Todo o tráfego sai de localhost: os limites de login e escrita mediriam o limitador, não a API
+                        "forumhub.login.limite.por-login.capacidade=1000000",
+                        "forumhub.login.limite.por-ip.capacidade=1000000",
+                        "forumhub.escrita.limite.capacidade=1000000",
+                        // A fila padrão do BCrypt (threads * 2) recusaria parte dos logins simultâneos do início
+                        "forumhub.senha.executor.tamanho-fila=" + USUARIOS_VIRTUAIS)
+                .run();
+    }
+
+    private void rodar(Duration duracao, Estatisticas estatisticas) throws Exception {
+        var fim = System.nanoTime() + duracao.toNanos();
+        ExecutorService executor = Executors.newFixedThreadPool(USUARIOS_VIRTUAIS);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < USUARIOS_VIRTUAIS; i++) {
+                var login = massa.logins().get(i % massa.logins().size());
+                tarefas.add(executor.submit(() -> {
+                    simularUsuario(login, fim, estatisticas);
+                    return null;
+                }));
+            }
+            for (var tarefa : tarefas) {
+                tarefa.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Mistura aproximada do tráfego de produção: leitura domina, login e respostas são minoria
+    private void simularUsuario(String login, long fim, Estatisticas estatisticas) throws Exception {
+        var token = login(login, System.nanoTime(), estatisticas);
+        var aleatorio = ThreadLocalRandom.current();
+
+        // Em malha aberta cada usuário tem sua agenda, com início sorteado para não disparar todos juntos.
+        // A latência conta a partir do horário agendado: se o servidor para, as requisições que deveriam ter
+        // saído nesse intervalo entram no histograma com a espera, em vez de simplesmente não acontecerem
+        var intervalo = TAXA > 0 ? TimeUnit.SECONDS.toNanos(USUARIOS_VIRTUAIS) / TAXA : 0;
+        var agendado = System.nanoTime() + (intervalo > 0 ? aleatorio.nextLong(intervalo) : 0);
+
+        while (agendado < fim) {
+            var inicio = intervalo > 0 ? aguardar(agendado) : System.nanoTime();
+            var sorteio = aleatorio.nextInt(100);
+            var idTopico = massa.idsTopicos().get(aleatorio.nextInt(massa.idsTopicos().size()));
+
+            if (sorteio < 5) {
+                token = login(login, inicio, estatisticas);
+            } else if (sorteio < 40) {
+                var pagina = aleatorio.nextInt(20);
+                enviar(Operacao.LISTAR_TOPICOS, get("/topicos?page=" + pagina + "&size=10", token), 200, inicio, estatisticas);
+            } else if (sorteio < 75) {
+                enviar(Operacao.DETALHAR_TOPICO, get("/topicos/" + idTopico, token), 200, inicio, estatisticas);
+            } else if (sorteio < 92) {
+                enviar(Operacao.LISTAR_RESPOSTAS, get("/topicos/" + idTopico + "/respostas", token), 200, inicio, estatisticas);
+            } else {
+                var corpo = mapper.writeValueAsString(new Mensagem("Resposta gerada pelo teste de carga " + System.nanoTime()));
+                var requisicao = requisicao("/topicos/" + idTopico + "/respostas", token)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                        .build();
+                enviar(Operacao.RESPONDER, requisicao, 201, inicio, estatisticas);
+            }
+
+            agendado = intervalo > 0 ? agendado + intervalo : System.nanoTime();
+        }
+    }
+
+    // Espera até o horário agendado e o devolve; atrasado, o usuário envia na hora e a agenda segue sem ser deslocada
+    private static long aguardar(long agendado) {
+        long restante;
+        while ((restante = agendado - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(restante);
+        }
+        return agendado;
+    }
+
+    private static void imprimirModo() {
+        if (TAXA > 0) {
+            System.out.printf("%nMalha aberta: %d req/s agendadas entre %d usuários virtuais; a latência conta desde o "
+                    + "horário agendado e inclui a espera quando o servidor não acompanha a taxa%n", TAXA, USUARIOS_VIRTUAIS);
+        } else {
+            System.out.printf("%nMalha fechada (-Dcarga.taxa=0): cada usuário só envia após a resposta anterior. Durante "
+                    + "pausas do servidor deixam de sair requisições (coordinated omission) e p99/p99.9/max ficam "
+                    + "subestimados; use uma taxa fixa para medir a cauda%n");
+        }
+    }
+
+    private String login(String login, long inicio, Estatisticas estatisticas) throws Exception {
+        var corpo = mapper.writeValueAsString(new Credenciais(login, MassaDeDados.SENHA));
+        var requisicao = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                .build();
+
+        var resposta = enviar(Operacao.LOGIN, requisicao, 200, inicio, estatisticas);
+        if (resposta == null) {
+            throw new IllegalStateException("Falha no login de " + login);
+        }
+        return mapper.readTree(resposta).get("token").asText();
+    }
+
+    // inicio é o horário agendado da requisição (ou o de envio, em malha fechada)
+    private String enviar(Operacao operacao, HttpRequest requisicao, int statusEsperado, long inicio, Estatisticas estatisticas) {
+        try {
+            var resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.ofString());
+            var sucesso = resposta.statusCode() == statusEsperado;
+            estatisticas.registrar(operacao, System.nanoTime() - inicio, sucesso);
+            return sucesso ? resposta.body() : null;
+        } catch (Exception e) {
+            estatisticas.registrar(operacao, System.nanoTime() - inicio, false);
+            return null;
+        }
+    }
+
+    private HttpRequest get(String caminho, String token) {
+        return requisicao(caminho, token).GET().build();
+    }
+
+    private HttpRequest.Builder requisicao(String caminho, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + caminho))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+    }
+
+    private record Credenciais(String login, String senha) {
+    }
+
+    private record Mensagem(String mensagem) {
+    }
+}
@@ -0,0 +1,77 @@
+package br.com.alura.forumhub.dto;
+
+import br.com.alura.forumhub.model.Resposta;
+import br.com.alura.forumhub.model.StatusTopico;
+import br.com.alura.forumhub.model.Topico;
+import br.com.alura.forumhub.model.Usuario;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoBenchmark {
+
+    // Mesmos tamanhos de página usados pela API: padrão (10) e máximo (100)
+    @Param({"10", "100"})
+    private int tamanhoPagina;
+
+    private Topico topico;
+    private Resposta resposta;
+    private List<Topico> topicos;
+    private Page<DadosListagemTopico> pagina;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void preparar() {
+        var agora = LocalDateTime.now();
+        var autor = new Usuario(1L, "ana.souza@voll.med", "senha");
+        topico = new Topico(1L, "Dúvida sobre JPA", "Como evitar o problema de N+1 nas consultas?", true, agora,
+                StatusTopico.NAO_SOLUCIONADO, null, "ana.souza@voll.med", "Spring Boot", 3L, 2, agora);
+        resposta = new Resposta(1L, "Use JOIN FETCH ou uma projeção.", topico, agora, autor, false);
+
+        topicos = new ArrayList<>(tamanhoPagina);
+        for (long i = 0; i < tamanhoPagina; i++) {
+            topicos.add(new Topico(i, "Tópico " + i, "Mensagem do tópico " + i, true, agora,
+                    StatusTopico.NAO_RESPONDIDO, null, "autor" + i, "Spring Boot", 0L, 0, agora));
+        }
+        pagina = new PageImpl<>(topicos, PageRequest.of(0, tamanhoPagina, Sort.by("dataCriacao")), 10_000)
+                .map(DadosListagemTopico::new);
+
+        // Mesma configuração base do ObjectMapper do Spring Boot (inclui o módulo de java.time)
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public DadosListagemTopico mapearListagemTopico() {
+        return new DadosListagemTopico(topico);
+    }
+
+    @Benchmark
+    public DadosDetalhamentoResposta mapearDetalhamentoResposta() {
+        return new DadosDetalhamentoResposta(resposta);
+    }
+
+    @Benchmark
+    public Page<DadosListagemTopico> mapearPaginaTopicos() {
+        return new PageImpl<>(topicos, PageRequest.of(0, tamanhoPagina), 10_000).map(DadosListagemTopico::new);
+    }
+
+    @Benchmark
+    public byte[] serializarPaginaTopicos() throws Exception {
+        return mapper.writeValueAsBytes(pagina);
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.alura.forumhub.infra.security;
+
+import br.com.alura.forumhub.infra.cache.UsuarioCache;
+import br.com.alura.forumhub.model.Usuario;
+import br.com.alura.forumhub.repository.UsuarioRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Filtro inteiro, com token já verificado e usuário já em cache: o custo que sobra por requisição autenticada
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    private final FilterChain cadeia = (request, response) -> {
+    };
+
+    private SecurityFilter securityFilter;
+    private MockHttpServletRequest comToken;
+    private MockHttpServletRequest semToken;
+    private MockHttpServletResponse resposta;
+
+    @Setup
+    public void preparar() {
+        var usuario = new Usuario(1L, "ana.souza@voll.med", "senha");
+        var usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.findByLogin(usuario.getLogin())).thenReturn(Optional.of(usuario));
+        var registry = new SimpleMeterRegistry();
+        var tokenService = new TokenService("segredo-benchmark", 10);
+
+        securityFilter = new SecurityFilter();
+        ReflectionTestUtils.setField(securityFilter, "tokenService", tokenService);
+        ReflectionTestUtils.setField(securityFilter, "usuarioCache", new UsuarioCache(usuarioRepository, registry, 10, Duration.ofHours(1)));
+        ReflectionTestUtils.setField(securityFilter, "registry", registry);
+        securityFilter.registrarMetricas();
+
+        comToken = new MockHttpServletRequest("GET", "/topicos");
+        comToken.addHeader("Authorization", "Bearer " + tokenService.gerarToken(usuario));
+        semToken = new MockHttpServletRequest("GET", "/topicos");
+        resposta = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void filtrarComToken() throws Exception {
+        securityFilter.doFilterInternal(comToken, resposta, cadeia);
+    }
+
+    @Benchmark
+    public void filtrarSemToken() throws Exception {
+        securityFilter.doFilterInternal(semToken, resposta, cadeia);
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.alura.forumhub.infra.security;
+
+import br.com.alura.forumhub.model.Usuario;
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+
+    private static final String SEGREDO = "segredo-benchmark";
+
+    private TokenService tokenService;
+    private Usuario usuario;
+    private String tokenJWT;
+
+    @Setup
+    public void preparar() {
+        tokenService = new TokenService(SEGREDO, 10_000);
+        usuario = new Usuario(1L, "ana.souza@voll.med", "senha");
+        tokenJWT = tokenService.gerarToken(usuario);
+    }
+
+    @Benchmark
+    public String gerarToken() {
+        return tokenService.gerarToken(usuario);
+    }
+
+    // Caminho anterior: novo Algorithm e novo JWTVerifier a cada chamada, sempre verificando a assinatura
+    @Benchmark
+    public String verificacaoOriginal() {
+        var algoritmo = Algorithm.HMAC256(SEGREDO);
+        return JWT.require(algoritmo)
+                .withIssuer("API ForumHub")
+                .acceptExpiresAt(0)
+                .build()
+                .verify(tokenJWT)
+                .getSubject();
+    }
+
+    @Benchmark
+    public String verificacaoComCache() {
+        return tokenService.getSubject(tokenJWT);
+    }
+}
@@ -2,8 +2,10 @@ package br.com.alura.forumhub.controller;
 
 import br.com.alura.forumhub.dto.DadosAutenticacao;
 import br.com.alura.forumhub.dto.DadosTokenJWT;
+import br.com.alura.forumhub.infra.limite.LimiteLogin;
 import br.com.alura.forumhub.infra.security.TokenService;
 import br.com.alura.forumhub.model.Usuario;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -24,8 +26,13 @@ public class AutenticacaoController {
     @Autowired
     private TokenService tokenService;
 
+    @Autowired
+    private LimiteLogin limiteLogin;
+
     @PostMapping
-    public ResponseEntity efetuarLogin(@RequestBody @Valid DadosAutenticacao dados) {
+    public ResponseEntity<DadosTokenJWT> efetuarLogin(@RequestBody @Valid DadosAutenticacao dados, HttpServletRequest request) {
+        limiteLogin.verificar(dados.login(), request.getRemoteAddr());
+
         var authenticationToken = new UsernamePasswordAuthenticationToken(dados.login(), dados.senha());
         var authentication = manager.authenticate(authenticationToken);
 
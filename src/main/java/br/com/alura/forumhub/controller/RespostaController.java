@@ -1,22 +1,31 @@
 package br.com.alura.forumhub.controller;
 
 import br.com.alura.forumhub.dto.*;
+import br.com.alura.forumhub.infra.cache.TopicoCache;
 import br.com.alura.forumhub.infra.exception.ValidacaoException;
 import br.com.alura.forumhub.model.Resposta;
 import br.com.alura.forumhub.model.Usuario;
 import br.com.alura.forumhub.repository.RespostaRepository;
 import br.com.alura.forumhub.repository.TopicoRepository;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.transaction.Transactional;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Base64;
 
 @RestController
 @RequestMapping("/topicos/{idTopico}/respostas")
@@ -28,6 +37,9 @@ public class RespostaController {
     @Autowired
     private TopicoRepository topicoRepository;
 
+    @Autowired
+    private TopicoCache topicoCache;
+
     @PostMapping
     @Transactional
     public ResponseEntity<DadosDetalhamentoResposta> criarResposta(
@@ -36,29 +48,37 @@ public class RespostaController {
             @AuthenticationPrincipal Usuario autor,
             UriComponentsBuilder uriBuilder) {
 
-        var topico = topicoRepository.findById(idTopico)
+        // O título serve de verificação de existência; a resposta referencia o tópico sem carregá-lo
+        var tituloTopico = topicoRepository.findTituloById(idTopico)
                 .orElseThrow(() -> new EntityNotFoundException("Tópico com id " + idTopico + " não encontrado."));
 
-        var resposta = new Resposta(null, dados.mensagem(), topico, LocalDateTime.now(), autor, false);
+        var resposta = new Resposta(null, dados.mensagem(), topicoRepository.getReferenceById(idTopico), LocalDateTime.now(), autor, false);
         respostaRepository.save(resposta);
+        topicoRepository.registrarNovaResposta(idTopico, resposta.getDataCriacao());
+        topicoCache.invalidar(idTopico);
 
         var uri = uriBuilder.path("/topicos/{idTopico}/respostas/{idResposta}").buildAndExpand(idTopico, resposta.getId()).toUri();
-        return ResponseEntity.created(uri).body(new DadosDetalhamentoResposta(resposta));
+        return ResponseEntity.created(uri).body(new DadosDetalhamentoResposta(resposta, tituloTopico));
     }
 
     @GetMapping
-    public ResponseEntity<List<DadosListagemResposta>> listarRespostas(@PathVariable Long idTopico) {
-        if (!topicoRepository.existsById(idTopico)) {
-            throw new EntityNotFoundException("Tópico com id " + idTopico + " não encontrado.");
-        }
-
-        var respostas = respostaRepository.findByTopicoId(idTopico);
+    @Transactional(readOnly = true)
+    public ResponseEntity<Slice<DadosListagemResposta>> listarRespostas(
+            @PathVariable Long idTopico,
+            @PageableDefault(size = 10, sort = {"dataCriacao"}) Pageable paginacao,
+            WebRequest request) {
 
-        var listaDto = respostas.stream()
-                .map(DadosListagemResposta::new)
-                .toList();
+        // A versão do tópico muda a cada alteração de resposta, então basta ela para decidir o 304.
+        // Também confirma que o tópico existe: a listagem custa 2 comandos (versão + página) e o 304 só 1
+        var versao = topicoRepository.findVersaoById(idTopico)
+                .orElseThrow(() -> new EntityNotFoundException("Tópico com id " + idTopico + " não encontrado."));
+        var etag = etag(idTopico, versao, paginacao);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
 
-        return ResponseEntity.ok(listaDto);
+        var respostas = respostaRepository.listarPorTopico(idTopico, paginacao);
+        return ResponseEntity.ok().eTag(etag).body(respostas);
     }
 
     @PutMapping("/{idResposta}")
@@ -76,11 +96,13 @@ public class RespostaController {
             throw new ValidacaoException("Esta resposta não pertence ao tópico informado.");
         }
 
-        if (!resposta.getAutor().equals(usuarioLogado)) {
+        if (!resposta.getAutor().getId().equals(usuarioLogado.getId())) {
             throw new ValidacaoException("Apenas o autor original pode editar esta resposta.");
         }
 
         resposta.atualizarInformacoes(dados.mensagem());
+        topicoRepository.incrementarVersao(idTopico);
+        topicoCache.invalidar(idTopico);
 
         return ResponseEntity.ok(new DadosDetalhamentoResposta(resposta));
     }
@@ -99,13 +121,62 @@ public class RespostaController {
             throw new ValidacaoException("Esta resposta não pertence ao tópico informado.");
         }
 
-        var autorDoTopico = resposta.getTopico().getAutor();
-        if (!resposta.getAutor().equals(usuarioLogado) && !autorDoTopico.equals(usuarioLogado.getUsername())) {
-            throw new ValidacaoException("Apenas o autor da resposta ou do tópico podem excluir.");
+        // Compara pelo id: o equals() no proxy do autor carregaria o usuário com um SELECT a mais
+        if (!resposta.getAutor().getId().equals(usuarioLogado.getId())) {
+            var autorDoTopico = topicoRepository.findAutorAtivoById(idTopico)
+                    .orElseThrow(() -> new EntityNotFoundException("Tópico com id " + idTopico + " não encontrado."));
+            if (!autorDoTopico.equalsIgnoreCase(usuarioLogado.getUsername())) {
+                throw new ValidacaoException("Apenas o autor da resposta ou do tópico podem excluir.");
+            }
         }
 
         respostaRepository.delete(resposta);
+        // O DELETE precisa chegar ao banco antes do UPDATE que recalcula a última atividade e a solução
+        respostaRepository.flush();
+        topicoRepository.registrarRespostaRemovida(idTopico);
+        topicoCache.invalidar(idTopico);
 
         return ResponseEntity.noContent().build();
     }
+
+    @PatchMapping("/{idResposta}/solucao")
+    @Transactional
+    public ResponseEntity<Void> marcarComoSolucao(
+            @PathVariable Long idTopico,
+            @PathVariable Long idResposta,
+            @AuthenticationPrincipal Usuario usuarioLogado) {
+
+        var autorDoTopico = topicoRepository.findAutorAtivoById(idTopico)
+                .orElseThrow(() -> new EntityNotFoundException("Tópico com id " + idTopico + " não encontrado."));
+
+        if (!autorDoTopico.equalsIgnoreCase(usuarioLogado.getUsername())) {
+            throw new ValidacaoException("Apenas o autor do tópico pode marcar a solução.");
+        }
+
+        if (!respostaRepository.existsByIdAndTopicoId(idResposta, idTopico)) {
+            throw new EntityNotFoundException("Resposta com id " + idResposta + " não encontrada.");
+        }
+
+        respostaRepository.marcarComoSolucao(idTopico, idResposta);
+        topicoRepository.registrarSolucao(idTopico);
+        topicoCache.invalidar(idTopico);
+
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String etag(Long idTopico, Long versao, Pageable paginacao) {
+        return "\"" + idTopico + "-" + versao + "-" + paginacao.getPageNumber() + "-" + paginacao.getPageSize()
+                + "-" + hashOrdenacao(paginacao.getSort()) + "\"";
+    }
+
+    // Sort.hashCode() depende do hash de identidade dos enums e muda entre JVMs; o toString() é estável
+    // (propriedade, direção, ignore case e nulls). O hash também mantém o ETag livre de aspas vindas do ?sort=
+    private static String hashOrdenacao(Sort ordenacao) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(ordenacao.toString().getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
@@ -6,81 +6,202 @@ import br.com.alura.forumhub.dto.DadosAtualizacaoTopico;
 import br.com.alura.forumhub.dto.DadosCadastroTopico;
 import br.com.alura.forumhub.dto.DadosDetalhamentoTopico;
 import br.com.alura.forumhub.dto.DadosListagemTopico;
+import br.com.alura.forumhub.dto.DadosPaginaCursor;
+import br.com.alura.forumhub.dto.DadosResultadoBusca;
+import br.com.alura.forumhub.infra.busca.IndiceTopicos;
+import br.com.alura.forumhub.infra.busca.Normalizador;
+import br.com.alura.forumhub.infra.cache.TopicoCache;
+import br.com.alura.forumhub.infra.exception.ValidacaoException;
+import br.com.alura.forumhub.infra.exportacao.ExportadorTopicos;
+import br.com.alura.forumhub.infra.importacao.ImportadorTopicos;
+import br.com.alura.forumhub.infra.paginacao.CursorTopico;
 import br.com.alura.forumhub.model.Topico;
 import br.com.alura.forumhub.model.Usuario;
+import br.com.alura.forumhub.repository.FiltrosTopico;
 import br.com.alura.forumhub.repository.TopicoRepository;
 import jakarta.persistence.EntityNotFoundException;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.transaction.Transactional;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import jakarta.validation.ValidationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/topicos")
 public class TopicoController {
 
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     @Autowired
     private TopicoRepository repository;
 
+    @Autowired
+    private TopicoCache topicoCache;
+
+    @Autowired
+    private IndiceTopicos indiceTopicos;
+
+    @Autowired
+    private ImportadorTopicos importadorTopicos;
+
+    @Autowired
+    private ExportadorTopicos exportadorTopicos;
+
     @PostMapping
     @Transactional
-    public ResponseEntity cadastrar(@RequestBody @Valid DadosCadastroTopico dados, UriComponentsBuilder uriBuilder) {
-        if (repository.existsByTituloAndMensagem(dados.titulo(), dados.mensagem())) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body("Tópico duplicado! Já existe um tópico com este título e mensagem.");
-        }
-
+    public ResponseEntity<DadosDetalhamentoTopico> cadastrar(@RequestBody @Valid DadosCadastroTopico dados, UriComponentsBuilder uriBuilder) {
+        // Duplicidade garantida pela UNIQUE (titulo, mensagem); a violação vira 409 no TratadorDeErros
         var topico = new Topico(dados);
-        repository.save(topico);
+        repository.saveAndFlush(topico);
+        indiceTopicos.indexar(topico);
 
         var uri = uriBuilder.path("/topicos/{id}").buildAndExpand(topico.getId()).toUri();
-        return ResponseEntity.created(uri).body(topico);
+        return ResponseEntity.created(uri).body(new DadosDetalhamentoTopico(topico));
+    }
+
+    @PostMapping(value = "/importacao", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public void importar(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        // Cada linha da entrada gera uma linha de resultado; o corpo é escrito à medida que os lotes são gravados
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        importadorTopicos.importar(request.getInputStream(), response.getOutputStream());
     }
 
     @GetMapping
+    @Transactional(readOnly = true)
     public ResponseEntity<Page<DadosListagemTopico>> listar(
             @PageableDefault(size = 10, sort = {"dataCriacao"}) Pageable paginacao,
             @RequestParam(required = false) String curso,
             @RequestParam(required = false) Integer ano) {
 
-        Specification<Topico> spec = (root, query, criteriaBuilder) -> {
-            List<Predicate> predicates = new ArrayList<>();
+        var page = repository.findAll(FiltrosTopico.ativosPorCursoEAno(curso, ano), paginacao).map(DadosListagemTopico::new);
+        return ResponseEntity.ok(page);
+    }
 
-            predicates.add(criteriaBuilder.isTrue(root.get("ativo")));
+    @GetMapping(value = "/exportacao", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportar(
+            @RequestParam(required = false) String curso,
+            @RequestParam(required = false) Integer ano,
+            @RequestParam(defaultValue = "false") boolean incluirRespostas) {
 
-            if (curso != null && !curso.isEmpty()) {
-                predicates.add(criteriaBuilder.equal(root.get("curso"), curso));
-            }
+        StreamingResponseBody corpo = saida -> exportadorTopicos.exportar(curso, ano, incluirRespostas, saida);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(corpo);
+    }
 
-            if (ano != null) {
-                predicates.add(criteriaBuilder.equal(
-                        criteriaBuilder.function("YEAR", Integer.class, root.get("dataCriacao")), ano
-                ));
-            }
+    @GetMapping("/cursor")
+    @Transactional(readOnly = true)
+    public ResponseEntity<DadosPaginaCursor<DadosListagemTopico>> listarPorCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int tamanho,
+            @RequestParam(required = false) String curso,
+            @RequestParam(required = false) Integer ano) {
 
-            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-        };
+        var spec = FiltrosTopico.ativosPorCursoEAno(curso, ano);
+        if (cursor != null && !cursor.isBlank()) {
+            spec = spec.and(aposCursor(CursorTopico.decodificar(cursor)));
+        }
 
-        var page = repository.findAll(spec, paginacao).map(DadosListagemTopico::new);
-        return ResponseEntity.ok(page);
+        var limite = Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA);
+        // Busca um registro a mais apenas para saber se existe próxima página, sem COUNT
+        List<Topico> topicos = repository.findBy(spec, query -> query
+                .sortBy(Sort.by("dataCriacao", "id"))
+                .limit(limite + 1)
+                .all());
+
+        var temProximo = topicos.size() > limite;
+        var conteudo = temProximo ? topicos.subList(0, limite) : topicos;
+        var proximoCursor = temProximo ? CursorTopico.de(conteudo.get(limite - 1)).codificar() : null;
+
+        return ResponseEntity.ok(new DadosPaginaCursor<>(
+                conteudo.stream().map(DadosListagemTopico::new).toList(), proximoCursor, temProximo));
+    }
+
+    @GetMapping("/search")
+    @Transactional(readOnly = true)
+    public ResponseEntity<Slice<DadosResultadoBusca>> buscar(
+            @RequestParam String q,
+            @PageableDefault(size = 10) Pageable paginacao) {
+
+        var termos = Normalizador.tokenizar(q);
+        if (termos.isEmpty()) {
+            throw new ValidacaoException("Informe ao menos um termo de busca com " + Normalizador.TAMANHO_MINIMO_TERMO + " ou mais caracteres.");
+        }
+
+        // A ordenação é sempre por relevância, então só a página e o tamanho são repassados
+        var pagina = PageRequest.of(paginacao.getPageNumber(), paginacao.getPageSize());
+        var resultados = repository.buscarPorTexto(q, pagina)
+                .map(resultado -> new DadosResultadoBusca(resultado, termos));
+        return ResponseEntity.ok(resultados);
+    }
+
+    @GetMapping("/busca-local")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<DadosListagemTopico>> buscarNoIndiceLocal(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "E") IndiceTopicos.Operador operador,
+            @RequestParam(required = false) String curso,
+            @RequestParam(defaultValue = "20") int tamanho) {
+
+        if (!indiceTopicos.isHabilitado()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (!indiceTopicos.isPronto()) {
+            // Ainda construindo: o resultado seria parcial
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+
+        var ids = indiceTopicos.buscar(q, operador, curso, Math.min(Math.max(tamanho, 1), TAMANHO_MAXIMO_PAGINA));
+        var porId = repository.findAllById(Arrays.stream(ids).boxed().toList()).stream()
+                .filter(Topico::isAtivo)
+                .collect(Collectors.toMap(Topico::getId, Function.identity()));
+
+        var resultado = Arrays.stream(ids)
+                .mapToObj(porId::get)
+                .filter(Objects::nonNull)
+                .map(DadosListagemTopico::new)
+                .toList();
+        return ResponseEntity.ok(resultado);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<DadosDetalhamentoTopico> detalhar(@PathVariable Long id) {
-        var topico = repository.findAtivoById(id)
+    public ResponseEntity<DadosDetalhamentoTopico> detalhar(@PathVariable Long id, WebRequest request) {
+        // O 304 é decidido só pela versão, sem carregar nem serializar o tópico
+        var versao = topicoCache.buscarVersao(id)
                 .orElseThrow(EntityNotFoundException::new);
-        return ResponseEntity.ok(new DadosDetalhamentoTopico(topico));
+        if (request.checkNotModified(etag(id, versao))) {
+            return null;
+        }
+
+        var topico = topicoCache.buscarPorId(id)
+                .orElseThrow(EntityNotFoundException::new);
+        return ResponseEntity.ok()
+                .eTag(etag(id, topico.versao()))
+                .body(topico.dados());
     }
 
     @PutMapping("/{id}")
@@ -97,14 +218,11 @@ public class TopicoController {
             throw new AccessDeniedException("Acesso negado: você não é o autor deste tópico.");
         }
 
-        repository.findByTituloAndMensagem(dados.titulo(), dados.mensagem())
-                .ifPresent(t -> {
-                    if (!t.getId().equals(id)) {
-                        throw new ValidationException("Tópico duplicado! Já existe um tópico com este título e mensagem.");
-                    }
-                });
-
+        var conteudoAnterior = IndiceTopicos.Conteudo.de(topico);
         topico.atualizarInformacoes(dados);
+        repository.flush();
+        topicoCache.invalidar(id);
+        indiceTopicos.reindexar(conteudoAnterior, topico);
 
         return ResponseEntity.ok(new DadosDetalhamentoTopico(topico));
     }
@@ -124,7 +242,21 @@ public class TopicoController {
         }
 
         topico.excluir();
+        topicoCache.invalidar(id);
+        indiceTopicos.remover(topico);
 
         return ResponseEntity.noContent().build();
     }
+
+    private static String etag(Long id, Long versao) {
+        return "\"" + id + "-" + versao + "\"";
+    }
+
+    private static Specification<Topico> aposCursor(CursorTopico cursor) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(
+                criteriaBuilder.greaterThan(root.<LocalDateTime>get("dataCriacao"), cursor.dataCriacao()),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("dataCriacao"), cursor.dataCriacao()),
+                        criteriaBuilder.greaterThan(root.<Long>get("id"), cursor.id())));
+    }
 }
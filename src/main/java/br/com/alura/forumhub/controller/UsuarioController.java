@@ -2,6 +2,7 @@ package br.com.alura.forumhub.controller;
 
 import br.com.alura.forumhub.dto.DadosCadastroUsuario;
 import br.com.alura.forumhub.dto.DadosDetalhamentoUsuario;
+import br.com.alura.forumhub.infra.cache.UsuarioCache;
 import br.com.alura.forumhub.model.Usuario;
 import br.com.alura.forumhub.repository.UsuarioRepository;
 import jakarta.validation.Valid;
@@ -27,6 +28,9 @@ public class UsuarioController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UsuarioCache usuarioCache;
+
     @PostMapping
     @Transactional
     public ResponseEntity<?> cadastrar(@RequestBody @Valid DadosCadastroUsuario dados,
@@ -41,6 +45,7 @@ public class UsuarioController {
         usuario.setSenha(passwordEncoder.encode(dados.senha()));
 
         repository.save(usuario);
+        usuarioCache.invalidar(usuario.getLogin());
 
         var uri = uriBuilder.path("/usuarios/{id}").buildAndExpand(usuario.getId()).toUri();
         return ResponseEntity.created(uri).body(new DadosDetalhamentoUsuario(usuario));
@@ -13,10 +13,14 @@ public record DadosDetalhamentoResposta(
         Boolean solucao
 ) {
     public DadosDetalhamentoResposta(Resposta resposta) {
+        this(resposta, resposta.getTopico().getTitulo());
+    }
+
+    public DadosDetalhamentoResposta(Resposta resposta, String nomeTopico) {
         this(
                 resposta.getId(),
                 resposta.getMensagem(),
-                resposta.getTopico().getTitulo(),
+                nomeTopico,
                 resposta.getDataCriacao(),
                 resposta.getAutor().getUsername(),
                 resposta.getSolucao()
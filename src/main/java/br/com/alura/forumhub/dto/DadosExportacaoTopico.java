@@ -0,0 +1,21 @@
+package br.com.alura.forumhub.dto;
+
+import br.com.alura.forumhub.model.StatusTopico;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DadosExportacaoTopico(
+        Long id,
+        String titulo,
+        String mensagem,
+        LocalDateTime dataCriacao,
+        StatusTopico status,
+        String autor,
+        String curso,
+        int totalRespostas,
+        LocalDateTime ultimaAtividade,
+        List<DadosListagemResposta> respostas) {
+}
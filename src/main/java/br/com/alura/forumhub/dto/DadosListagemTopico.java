@@ -12,7 +12,9 @@ public record DadosListagemTopico(
         LocalDateTime dataCriacao,
         StatusTopico status,
         String autor,
-        String curso)
+        String curso,
+        int totalRespostas,
+        LocalDateTime ultimaAtividade)
 {
 
     public DadosListagemTopico(Topico topico) {
@@ -22,6 +24,8 @@ public record DadosListagemTopico(
                 topico.getDataCriacao(),
                 topico.getStatus(),
                 topico.getAutor(),
-                topico.getCurso());
+                topico.getCurso(),
+                topico.getTotalRespostas(),
+                topico.getUltimaAtividade());
     }
 }
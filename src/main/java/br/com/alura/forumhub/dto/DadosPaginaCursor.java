@@ -0,0 +1,9 @@
+package br.com.alura.forumhub.dto;
+
+import java.util.List;
+
+public record DadosPaginaCursor<T>(
+        List<T> conteudo,
+        String proximoCursor,
+        boolean temProximo) {
+}
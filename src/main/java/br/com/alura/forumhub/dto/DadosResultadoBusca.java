@@ -0,0 +1,30 @@
+package br.com.alura.forumhub.dto;
+
+import br.com.alura.forumhub.infra.busca.Destaque;
+import br.com.alura.forumhub.model.StatusTopico;
+import br.com.alura.forumhub.repository.ResultadoBuscaTopico;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+public record DadosResultadoBusca(
+        Long id,
+        String titulo,
+        String trecho,
+        LocalDateTime dataCriacao,
+        StatusTopico status,
+        String autor,
+        String curso,
+        Double relevancia) {
+
+    public DadosResultadoBusca(ResultadoBuscaTopico resultado, Set<String> termos) {
+        this(resultado.getId(),
+                Destaque.destacar(resultado.getTitulo(), termos),
+                Destaque.trecho(resultado.getMensagem(), termos),
+                resultado.getDataCriacao(),
+                resultado.getStatus(),
+                resultado.getAutor(),
+                resultado.getCurso(),
+                resultado.getRelevancia());
+    }
+}
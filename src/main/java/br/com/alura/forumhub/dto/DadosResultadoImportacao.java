@@ -0,0 +1,21 @@
+package br.com.alura.forumhub.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DadosResultadoImportacao(
+        long linha,
+        String situacao,
+        Long id,
+        List<String> erros) {
+
+    public static DadosResultadoImportacao criado(long linha, Long id) {
+        return new DadosResultadoImportacao(linha, "CRIADO", id, null);
+    }
+
+    public static DadosResultadoImportacao erro(long linha, List<String> erros) {
+        return new DadosResultadoImportacao(linha, "ERRO", null, erros);
+    }
+}
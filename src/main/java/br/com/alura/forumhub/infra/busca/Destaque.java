@@ -0,0 +1,66 @@
+package br.com.alura.forumhub.infra.busca;
+
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.Set;
+
+public final class Destaque {
+
+    private static final int TAMANHO_TRECHO = 160;
+
+    private Destaque() {
+    }
+
+    public static String destacar(String texto, Set<String> termos) {
+        return destacar(texto, termos, 0, texto.length());
+    }
+
+    // Recorta uma janela em torno da primeira ocorrência e marca os termos com <mark>
+    public static String trecho(String texto, Set<String> termos) {
+        if (texto.length() <= TAMANHO_TRECHO) {
+            return destacar(texto, termos);
+        }
+
+        var normalizado = Normalizador.normalizar(texto);
+        var primeira = termos.stream()
+                .mapToInt(normalizado::indexOf)
+                .filter(posicao -> posicao >= 0)
+                .min()
+                .orElse(0);
+
+        var inicio = Math.max(0, Math.min(primeira - TAMANHO_TRECHO / 4, texto.length() - TAMANHO_TRECHO));
+        var fim = Math.min(texto.length(), inicio + TAMANHO_TRECHO);
+        return (inicio > 0 ? "…" : "") + destacar(texto, termos, inicio, fim) + (fim < texto.length() ? "…" : "");
+    }
+
+    private static String destacar(String texto, Set<String> termos, int inicio, int fim) {
+        var normalizado = Normalizador.normalizar(texto);
+        var resultado = new StringBuilder();
+        int i = inicio;
+        while (i < fim) {
+            var tamanho = tamanhoDoTermoEm(normalizado, termos, i, fim);
+            if (tamanho > 0) {
+                resultado.append("<mark>").append(HtmlUtils.htmlEscape(texto.substring(i, i + tamanho))).append("</mark>");
+                i += tamanho;
+            } else {
+                resultado.append(HtmlUtils.htmlEscape(String.valueOf(texto.charAt(i))));
+                i++;
+            }
+        }
+        return resultado.toString();
+    }
+
+    private static int tamanhoDoTermoEm(String normalizado, Set<String> termos, int posicao, int fim) {
+        if (posicao > 0 && Character.isLetterOrDigit(normalizado.charAt(posicao - 1))) {
+            return 0;
+        }
+        for (var termo : termos) {
+            var termina = posicao + termo.length();
+            if (termina <= fim && normalizado.startsWith(termo, posicao)
+                    && (termina == normalizado.length() || !Character.isLetterOrDigit(normalizado.charAt(termina)))) {
+                return termo.length();
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,288 @@
+package br.com.alura.forumhub.infra.busca;
+
+import br.com.alura.forumhub.infra.transacao.AposCommit;
+import br.com.alura.forumhub.model.Topico;
+import br.com.alura.forumhub.repository.TopicoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice invertido em memória para quando não há busca textual no banco
+@Component
+public class IndiceTopicos {
+
+    public enum Operador { E, OU }
+
+    // Texto indexado de um tópico; na atualização, os termos antigos são recalculados a partir dele
+    // em vez de mantidos em memória para cada tópico
+    public record Conteudo(String titulo, String mensagem, String curso) {
+
+        public static Conteudo de(Topico topico) {
+            return new Conteudo(topico.getTitulo(), topico.getMensagem(), topico.getCurso());
+        }
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(IndiceTopicos.class);
+
+    private static final String PREFIXO_CURSO = "curso:";
+    private static final Set<String> STOPWORDS = Set.of(
+            "que", "com", "para", "uma", "uns", "umas", "por", "dos", "das", "nos", "nas", "como", "mais",
+            "nao", "sem", "sobre", "entre", "ele", "ela", "eles", "elas", "isso", "isto", "este", "esta",
+            "esse", "essa", "pelo", "pela", "seu", "sua", "meu", "minha", "quando", "qual", "tem", "ser");
+
+    private final TopicoRepository repository;
+    private final boolean habilitado;
+    private final int tamanhoLote;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postagens> postagens = new HashMap<>();
+    // Alterações confirmadas durante a construção: aplicadas em ordem sobre o snapshot, antes de liberar as buscas
+    private final List<Runnable> pendentes = new ArrayList<>();
+    private volatile boolean pronto;
+
+    public IndiceTopicos(TopicoRepository repository,
+                         @Value("${forumhub.busca.indice-local.habilitado:false}") boolean habilitado,
+                         @Value("${forumhub.busca.indice-local.tamanho-lote:1000}") int tamanhoLote) {
+        this.repository = repository;
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    // Falso enquanto o índice é construído: buscas nesse intervalo teriam resultados parciais
+    public boolean isPronto() {
+        return pronto;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void construir() {
+        if (!habilitado) {
+            return;
+        }
+
+        var inicio = System.currentTimeMillis();
+        var total = 0;
+        var ultimoId = 0L;
+        List<Topico> lote;
+        do {
+            lote = repository.findByAtivoTrueAndIdGreaterThanOrderByIdAsc(ultimoId, PageRequest.of(0, tamanhoLote));
+            lock.writeLock().lock();
+            try {
+                for (var topico : lote) {
+                    adicionar(topico.getId(), termos(Conteudo.de(topico)));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!lote.isEmpty()) {
+                ultimoId = lote.get(lote.size() - 1).getId();
+                total += lote.size();
+            }
+        } while (lote.size() == tamanhoLote);
+
+        // O snapshot pode ter lido um tópico antes ou depois de uma alteração pendente; como cada uma retira os
+        // termos antigos antes de incluir os novos, reaplicá-las em ordem chega ao estado mais recente nos dois casos
+        int aplicadas;
+        lock.writeLock().lock();
+        try {
+            aplicadas = pendentes.size();
+            pendentes.forEach(Runnable::run);
+            pendentes.clear();
+            pronto = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Índice local de tópicos construído: {} tópicos, {} termos, {} alterações reaplicadas em {} ms",
+                total, postagens.size(), aplicadas, System.currentTimeMillis() - inicio);
+    }
+
+    public void indexar(Topico topico) {
+        if (!habilitado || !topico.isAtivo()) {
+            return;
+        }
+
+        var id = topico.getId();
+        var termos = termos(Conteudo.de(topico));
+        AposCommit.executar(() -> aplicar(() -> adicionar(id, termos)));
+    }
+
+    public void reindexar(Conteudo anterior, Topico topico) {
+        if (!habilitado) {
+            return;
+        }
+
+        var id = topico.getId();
+        var termosAntigos = termos(anterior);
+        var termosNovos = topico.isAtivo() ? termos(Conteudo.de(topico)) : null;
+        AposCommit.executar(() -> aplicar(() -> {
+            retirar(id, termosAntigos);
+            if (termosNovos != null) {
+                adicionar(id, termosNovos);
+            }
+        }));
+    }
+
+    public void remover(Topico topico) {
+        if (!habilitado) {
+            return;
+        }
+
+        var id = topico.getId();
+        var termos = termos(Conteudo.de(topico));
+        AposCommit.executar(() -> aplicar(() -> retirar(id, termos)));
+    }
+
+    // Retorna os ids encontrados, dos mais recentes para os mais antigos
+    public long[] buscar(String consulta, Operador operador, String curso, int limite) {
+        var termos = new ArrayList<>(Normalizador.tokenizar(consulta));
+        termos.removeIf(STOPWORDS::contains);
+        if (termos.isEmpty()) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            var listas = new ArrayList<Postagens>();
+            for (var termo : termos) {
+                var lista = postagens.get(termo);
+                if (lista != null) {
+                    listas.add(lista);
+                } else if (operador == Operador.E) {
+                    return new long[0];
+                }
+            }
+            if (listas.isEmpty()) {
+                return new long[0];
+            }
+
+            Postagens doCurso = null;
+            if (curso != null && !curso.isBlank()) {
+                doCurso = postagens.get(PREFIXO_CURSO + Normalizador.normalizar(curso.trim()));
+                if (doCurso == null) {
+                    return new long[0];
+                }
+            }
+
+            if (operador == Operador.E) {
+                if (doCurso != null) {
+                    listas.add(doCurso);
+                }
+                return intersecao(listas, limite);
+            }
+            return uniao(listas, doCurso, limite);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void aplicar(Runnable alteracao) {
+        lock.writeLock().lock();
+        try {
+            if (pronto) {
+                alteracao.run();
+            } else {
+                pendentes.add(alteracao);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adicionar(long id, String[] termos) {
+        for (var termo : termos) {
+            postagens.computeIfAbsent(termo, t -> new Postagens()).adicionar(id);
+        }
+    }
+
+    private void retirar(long id, String[] termos) {
+        for (var termo : termos) {
+            var lista = postagens.get(termo);
+            if (lista != null) {
+                lista.remover(id);
+                if (lista.vazia()) {
+                    postagens.remove(termo);
+                }
+            }
+        }
+    }
+
+    // Percorre a menor lista do fim para o começo (ids maiores são os mais recentes), conferindo cada id nas
+    // demais por busca binária, e para ao atingir o limite; nenhuma lista é copiada
+    private static long[] intersecao(List<Postagens> listas, int limite) {
+        listas.sort(Comparator.comparingInt(Postagens::tamanho));
+        var menor = listas.get(0);
+        var resultado = new long[Math.min(limite, menor.tamanho())];
+        var encontrados = 0;
+        for (int i = menor.tamanho() - 1; i >= 0 && encontrados < resultado.length; i--) {
+            var id = menor.get(i);
+            if (contidoNasDemais(id, listas)) {
+                resultado[encontrados++] = id;
+            }
+        }
+        return encontrados == resultado.length ? resultado : Arrays.copyOf(resultado, encontrados);
+    }
+
+    private static boolean contidoNasDemais(long id, List<Postagens> listas) {
+        for (int i = 1; i < listas.size(); i++) {
+            if (!listas.get(i).contem(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Merge decrescente com um cursor por lista, também parando no limite
+    private static long[] uniao(List<Postagens> listas, Postagens doCurso, int limite) {
+        var cursores = new int[listas.size()];
+        for (int i = 0; i < cursores.length; i++) {
+            cursores[i] = listas.get(i).tamanho() - 1;
+        }
+
+        var resultado = new long[limite];
+        var encontrados = 0;
+        while (encontrados < limite) {
+            var maior = Long.MIN_VALUE;
+            for (int i = 0; i < cursores.length; i++) {
+                if (cursores[i] >= 0) {
+                    maior = Math.max(maior, listas.get(i).get(cursores[i]));
+                }
+            }
+            if (maior == Long.MIN_VALUE) {
+                break;
+            }
+            for (int i = 0; i < cursores.length; i++) {
+                if (cursores[i] >= 0 && listas.get(i).get(cursores[i]) == maior) {
+                    cursores[i]--;
+                }
+            }
+            if (doCurso == null || doCurso.contem(maior)) {
+                resultado[encontrados++] = maior;
+            }
+        }
+        return Arrays.copyOf(resultado, encontrados);
+    }
+
+    private static String[] termos(Conteudo conteudo) {
+        var termos = Normalizador.tokenizar(conteudo.titulo() + " " + conteudo.mensagem());
+        termos.removeIf(STOPWORDS::contains);
+        termos.add(PREFIXO_CURSO + Normalizador.normalizar(conteudo.curso().trim()));
+        return termos.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,40 @@
+package br.com.alura.forumhub.infra.busca;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public final class Normalizador {
+
+    public static final int TAMANHO_MINIMO_TERMO = 3;
+
+    private Normalizador() {
+    }
+
+    // Remove acentos e caixa caractere a caractere, preservando o tamanho do texto para o destaque
+    public static String normalizar(String texto) {
+        var resultado = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            resultado.append(normalizar(texto.charAt(i)));
+        }
+        return resultado.toString();
+    }
+
+    public static char normalizar(char caractere) {
+        if (caractere < 128) {
+            return Character.toLowerCase(caractere);
+        }
+        var decomposto = Normalizer.normalize(String.valueOf(caractere), Normalizer.Form.NFD);
+        return Character.toLowerCase(decomposto.charAt(0));
+    }
+
+    public static Set<String> tokenizar(String texto) {
+        Set<String> termos = new LinkedHashSet<>();
+        for (var termo : normalizar(texto).split("[^\\p{L}\\p{N}]+")) {
+            if (termo.length() >= TAMANHO_MINIMO_TERMO) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.alura.forumhub.infra.busca;
+
+import java.util.Arrays;
+
+// Lista de ids ordenada, mantida em um long[] para não pagar o custo de Long por posição
+final class Postagens {
+
+    private long[] ids = new long[4];
+    private int tamanho;
+
+    void adicionar(long id) {
+        if (tamanho == 0 || ids[tamanho - 1] < id) {
+            garantirCapacidade();
+            ids[tamanho++] = id;
+            return;
+        }
+
+        var posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao >= 0) {
+            return;
+        }
+
+        var insercao = -(posicao + 1);
+        garantirCapacidade();
+        System.arraycopy(ids, insercao, ids, insercao + 1, tamanho - insercao);
+        ids[insercao] = id;
+        tamanho++;
+    }
+
+    void remover(long id) {
+        var posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao < 0) {
+            return;
+        }
+
+        System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+        tamanho--;
+        if (tamanho > 16 && tamanho < ids.length / 4) {
+            ids = Arrays.copyOf(ids, ids.length / 2);
+        }
+    }
+
+    boolean vazia() {
+        return tamanho == 0;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    long get(int posicao) {
+        return ids[posicao];
+    }
+
+    boolean contem(long id) {
+        return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+    }
+
+    private void garantirCapacidade() {
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, ids.length * 2);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.alura.forumhub.infra.cache;
+
+import br.com.alura.forumhub.dto.DadosDetalhamentoTopico;
+import br.com.alura.forumhub.infra.transacao.AposCommit;
+import br.com.alura.forumhub.repository.TopicoRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+@Component
+public class TopicoCache {
+
+    private final TopicoRepository repository;
+    private final Cache<Long, TopicoEmCache> cache;
+    // Marca de cada carga em andamento, por id; invalidar(id) remove a marca e a carga deixa de ser guardada
+    private final ConcurrentMap<Long, Object> cargas = new ConcurrentHashMap<>();
+
+    public TopicoCache(TopicoRepository repository,
+                       MeterRegistry registry,
+                       @Value("${forumhub.cache.topicos.tamanho-maximo:10000}") long tamanhoMaximo,
+                       @Value("${forumhub.cache.topicos.expiracao:10m}") Duration expiracao) {
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "topicos");
+    }
+
+    public Optional<TopicoEmCache> buscarPorId(Long id) {
+        var emCache = cache.getIfPresent(id);
+        if (emCache != null) {
+            return Optional.of(emCache);
+        }
+
+        // Carrega fora do cache.get() para não segurar o lock do ConcurrentHashMap durante a consulta (ver UsuarioCache).
+        // Se o mesmo id foi invalidado durante a consulta, o resultado pode ser anterior ao commit e não é guardado;
+        // invalidações de outros ids não interferem
+        var marca = new Object();
+        cargas.put(id, marca);
+        try {
+            var topico = repository.findAtivoById(id)
+                    .map(t -> new TopicoEmCache(new DadosDetalhamentoTopico(t), t.getVersao()));
+            // Cargas concorrentes do mesmo id: só a última a começar guarda o resultado, pois a marca dela substituiu a das outras
+            topico.ifPresent(t -> cache.asMap().compute(id, (chave, atual) -> cargas.remove(id, marca) ? t : atual));
+            return topico;
+        } finally {
+            cargas.remove(id, marca);
+        }
+    }
+
+    public Optional<Long> buscarVersao(Long id) {
+        var emCache = cache.getIfPresent(id);
+        if (emCache != null) {
+            return Optional.of(emCache.versao());
+        }
+        return repository.findVersaoAtivoById(id);
+    }
+
+    public void invalidar(Long id) {
+        cargas.remove(id);
+        cache.invalidate(id);
+
+        // Invalida de novo após o commit, descartando o que uma leitura concorrente tenha carregado antes dele
+        AposCommit.executar(() -> {
+            cargas.remove(id);
+            cache.invalidate(id);
+        });
+    }
+
+    public record TopicoEmCache(DadosDetalhamentoTopico dados, Long versao) {
+    }
+}
@@ -0,0 +1,50 @@
+package br.com.alura.forumhub.infra.cache;
+
+import br.com.alura.forumhub.model.Usuario;
+import br.com.alura.forumhub.repository.UsuarioRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+@Component
+public class UsuarioCache {
+
+    private final UsuarioRepository repository;
+    private final Cache<String, Usuario> cache;
+
+    public UsuarioCache(UsuarioRepository repository,
+                        MeterRegistry registry,
+                        @Value("${forumhub.cache.usuarios.tamanho-maximo:10000}") long tamanhoMaximo,
+                        @Value("${forumhub.cache.usuarios.expiracao:5m}") Duration expiracao) {
+        this.repository = repository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "usuarios");
+    }
+
+    public Optional<Usuario> buscarPorLogin(String login) {
+        var emCache = cache.getIfPresent(login);
+        if (emCache != null) {
+            return Optional.of(emCache);
+        }
+
+        // Consulta fora do cache.get(): o loader roda dentro de um bloco synchronized do ConcurrentHashMap
+        // e prenderia a thread portadora enquanto uma thread virtual espera o MySQL
+        var usuario = repository.findByLogin(login);
+        usuario.ifPresent(u -> cache.put(login, u));
+        return usuario;
+    }
+
+    public void invalidar(String login) {
+        cache.invalidate(login);
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.alura.forumhub.infra.datasource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+// Com forumhub.datasource.dimensionar-pool=true (perfil prod), o pool do Hikari que não tiver tamanho explícito
+// recebe núcleos * 2 + 1 conexões, com tamanho fixo (minimum-idle = maximum-pool-size), como recomenda o HikariCP
+@Component
+public class DimensionamentoPool implements BeanPostProcessor, EnvironmentAware {
+
+    private static final String TAMANHO_MAXIMO = "spring.datasource.hikari.maximum-pool-size";
+    private static final String MINIMO_OCIOSO = "spring.datasource.hikari.minimum-idle";
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof HikariDataSource pool) {
+            aplicar(pool, environment);
+        }
+        return bean;
+    }
+
+    public static void aplicar(HikariConfig pool, Environment environment) {
+        if (!environment.getProperty("forumhub.datasource.dimensionar-pool", Boolean.class, false)) {
+            return;
+        }
+
+        // O Binder reconhece as mesmas formas que o Spring Boot aceita ao configurar o pool: kebab-case, camelCase
+        // e variáveis de ambiente (SPRING_DATASOURCE_HIKARI_MAXIMUMPOOLSIZE)
+        var binder = Binder.get(environment);
+        if (!binder.bind(TAMANHO_MAXIMO, Integer.class).isBound()) {
+            pool.setMaximumPoolSize(tamanhoRecomendado());
+        }
+        if (!binder.bind(MINIMO_OCIOSO, Integer.class).isBound()) {
+            pool.setMinimumIdle(pool.getMaximumPoolSize());
+        }
+    }
+
+    // Fórmula do HikariCP ("About Pool Sizing"): núcleos * 2 + discos efetivos, considerando um disco (SSD)
+    public static int tamanhoRecomendado() {
+        return Runtime.getRuntime().availableProcessors() * 2 + 1;
+    }
+}
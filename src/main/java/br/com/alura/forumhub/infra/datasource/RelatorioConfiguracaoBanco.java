@@ -0,0 +1,66 @@
+package br.com.alura.forumhub.infra.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.TreeMap;
+
+// Registra no log, ao subir, a configuração efetiva do pool, do driver e do Hibernate
+@Component
+public class RelatorioConfiguracaoBanco {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatorioConfiguracaoBanco.class);
+
+    private static final List<String> PROPRIEDADES_HIBERNATE = List.of(
+            "hibernate.jdbc.batch_size",
+            "hibernate.order_inserts",
+            "hibernate.order_updates",
+            "hibernate.default_batch_fetch_size",
+            "hibernate.query.plan_cache_enabled",
+            "hibernate.query.plan_cache_max_size",
+            "hibernate.query.in_clause_parameter_padding",
+            "hibernate.connection.provider_disables_autocommit");
+
+    private final DataSource dataSource;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public RelatorioConfiguracaoBanco(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void registrar() {
+        var relatorio = new StringBuilder("Configuração efetiva do banco de dados:");
+
+        var pool = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        if (pool != null) {
+            relatorio.append("\n  pool ").append(pool.getPoolName())
+                    .append(": maximum-pool-size=").append(pool.getMaximumPoolSize())
+                    .append(", minimum-idle=").append(pool.getMinimumIdle())
+                    .append(", connection-timeout=").append(pool.getConnectionTimeout()).append("ms")
+                    .append(", max-lifetime=").append(pool.getMaxLifetime()).append("ms")
+                    .append(" (núcleos disponíveis: ").append(Runtime.getRuntime().availableProcessors()).append(")");
+            new TreeMap<>(pool.getDataSourceProperties()).forEach((chave, valor) ->
+                    relatorio.append("\n  driver ").append(chave).append("=").append(valor));
+        } else {
+            relatorio.append("\n  pool: ").append(dataSource.getClass().getSimpleName())
+                    .append(" (pools por rota, ver métricas hikaricp.*)");
+        }
+
+        var propriedades = entityManagerFactory.getProperties();
+        for (var chave : PROPRIEDADES_HIBERNATE) {
+            relatorio.append("\n  ").append(chave).append("=").append(propriedades.getOrDefault(chave, "(padrão)"));
+        }
+
+        log.info(relatorio.toString());
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.alura.forumhub.infra.exception;
+
+import lombok.Getter;
+
+@Getter
+public class LimiteRequisicoesException extends RuntimeException {
+
+    private final long segundosParaNovaTentativa;
+
+    public LimiteRequisicoesException(String message, long segundosParaNovaTentativa) {
+        super(message);
+        this.segundosParaNovaTentativa = segundosParaNovaTentativa;
+    }
+}
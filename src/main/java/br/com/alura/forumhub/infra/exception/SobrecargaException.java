@@ -0,0 +1,7 @@
+package br.com.alura.forumhub.infra.exception;
+
+public class SobrecargaException extends RuntimeException {
+    public SobrecargaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.alura.forumhub.infra.exception;
+
+import java.sql.SQLException;
+
+// Reconhece a violação da UNIQUE (titulo, mensagem) de topicos entre as causas de uma exceção de persistência
+public final class TopicoDuplicado {
+
+    public static final String MENSAGEM = "Tópico duplicado! Já existe um tópico com este título e mensagem.";
+
+    private static final int ERRO_MYSQL_CHAVE_DUPLICADA = 1062;
+
+    private TopicoDuplicado() {
+    }
+
+    // MySQL 1062: "Duplicate entry '...' for key 'topicos.titulo'" (a UNIQUE sem nome recebe o da primeira coluna)
+    public static boolean causou(Throwable ex) {
+        for (var causa = ex; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sql && sql.getErrorCode() == ERRO_MYSQL_CHAVE_DUPLICADA) {
+                var mensagem = sql.getMessage();
+                return mensagem != null && (mensagem.endsWith("for key 'topicos.titulo'") || mensagem.endsWith("for key 'titulo'"));
+            }
+        }
+        return false;
+    }
+}
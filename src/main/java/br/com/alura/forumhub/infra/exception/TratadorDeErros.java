@@ -1,6 +1,9 @@
 package br.com.alura.forumhub.infra.exception;
 
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -23,4 +26,32 @@ public class TratadorDeErros {
     public ResponseEntity tratarErroTokenInvalido(ValidacaoTokenException ex) {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
     }
+
+    // Só a UNIQUE (titulo, mensagem) de topicos vira 409; FK, NOT NULL, tamanho etc. seguem o tratamento padrão
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity tratarErroTopicoDuplicado(DataIntegrityViolationException ex) {
+        if (!TopicoDuplicado.causou(ex)) {
+            throw ex;
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(TopicoDuplicado.MENSAGEM);
+    }
+
+    @ExceptionHandler(SobrecargaException.class)
+    public ResponseEntity tratarErroSobrecarga(SobrecargaException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(LimiteRequisicoesException.class)
+    public ResponseEntity tratarErroLimiteRequisicoes(LimiteRequisicoesException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getSegundosParaNovaTentativa()))
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity tratarErroConcorrencia() {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("O registro foi alterado por outra requisição. Tente novamente.");
+    }
 }
@@ -0,0 +1,163 @@
+package br.com.alura.forumhub.infra.exportacao;
+
+import br.com.alura.forumhub.dto.DadosExportacaoTopico;
+import br.com.alura.forumhub.dto.DadosListagemResposta;
+import br.com.alura.forumhub.model.StatusTopico;
+import br.com.alura.forumhub.repository.FiltrosTopico;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Exporta tópicos em NDJSON lendo um ResultSet forward-only em streaming, sem carregar o resultado em memória
+@Component
+public class ExportadorTopicos {
+
+    private static final String COLUNAS_TOPICO = """
+            t.id, t.titulo, t.mensagem, t.data_criacao, t.status, t.autor, t.curso,
+            t.total_respostas, t.ultima_atividade""";
+
+    private static final String COLUNAS_RESPOSTA = """
+            , r.id AS resposta_id, r.mensagem AS resposta_mensagem, r.data_criacao AS resposta_data_criacao,
+            u.login AS resposta_autor, r.solucao AS resposta_solucao""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper mapper;
+    private final TransactionTemplate transacaoLeitura;
+
+    public ExportadorTopicos(DataSource dataSource,
+                             PlatformTransactionManager transactionManager,
+                             ObjectMapper mapper,
+                             // Integer.MIN_VALUE faz o driver do MySQL entregar as linhas uma a uma em vez de bufferizar tudo
+                             @Value("${forumhub.exportacao.fetch-size:-2147483648}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.mapper = mapper;
+        // Transação somente leitura: com réplicas configuradas, a exportação não pesa no primário
+        this.transacaoLeitura = new TransactionTemplate(transactionManager);
+        this.transacaoLeitura.setReadOnly(true);
+    }
+
+    public void exportar(String curso, Integer ano, boolean incluirRespostas, OutputStream saida) throws IOException {
+        var sql = new StringBuilder("SELECT ").append(COLUNAS_TOPICO);
+        if (incluirRespostas) {
+            sql.append(COLUNAS_RESPOSTA);
+        }
+        sql.append(" FROM topicos t");
+        if (incluirRespostas) {
+            sql.append(" LEFT JOIN respostas r ON r.topico_id = t.id LEFT JOIN usuarios u ON u.id = r.autor_id");
+        }
+
+        List<Object> parametros = new ArrayList<>();
+        sql.append(FiltrosTopico.ativosPorCursoEAnoSql("t", curso, ano, parametros));
+        // Linhas do mesmo tópico chegam consecutivas e podem ser agrupadas sem guardar o resultado inteiro
+        sql.append(incluirRespostas ? " ORDER BY t.id, r.id" : " ORDER BY t.id");
+
+        var escritor = mapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+
+        try (var gerador = mapper.getFactory().createGenerator(saida)) {
+            gerador.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try (var sequencia = escritor.writeValues(gerador)) {
+                var agrupador = new Agrupador(sequencia, incluirRespostas);
+                try {
+                    transacaoLeitura.executeWithoutResult(status ->
+                            jdbcTemplate.query(sql.toString(), agrupador::processar, parametros.toArray()));
+                    agrupador.finalizar();
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+            }
+            gerador.writeRaw('\n');
+        }
+    }
+
+    private static class Agrupador {
+
+        private final SequenceWriter sequencia;
+        private final boolean incluirRespostas;
+
+        private TopicoEmMontagem atual;
+
+        Agrupador(SequenceWriter sequencia, boolean incluirRespostas) {
+            this.sequencia = sequencia;
+            this.incluirRespostas = incluirRespostas;
+        }
+
+        void processar(ResultSet rs) throws SQLException {
+            var id = rs.getLong("id");
+            if (atual == null || atual.id() != id) {
+                finalizar();
+                atual = new TopicoEmMontagem(id, rs, incluirRespostas ? new ArrayList<>() : null);
+            }
+
+            if (incluirRespostas) {
+                var idResposta = rs.getLong("resposta_id");
+                if (!rs.wasNull()) {
+                    atual.respostas().add(new DadosListagemResposta(
+                            idResposta,
+                            rs.getString("resposta_mensagem"),
+                            rs.getObject("resposta_data_criacao", LocalDateTime.class),
+                            rs.getString("resposta_autor"),
+                            rs.getBoolean("resposta_solucao")));
+                }
+            }
+        }
+
+        void finalizar() {
+            if (atual == null) {
+                return;
+            }
+
+            try {
+                sequencia.write(atual.paraDados());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            atual = null;
+        }
+    }
+
+    private record TopicoEmMontagem(long id, DadosExportacaoTopico dados, List<DadosListagemResposta> respostas) {
+
+        TopicoEmMontagem(long id, ResultSet rs, List<DadosListagemResposta> respostas) throws SQLException {
+            this(id, new DadosExportacaoTopico(
+                    id,
+                    rs.getString("titulo"),
+                    rs.getString("mensagem"),
+                    rs.getObject("data_criacao", LocalDateTime.class),
+                    StatusTopico.valueOf(rs.getString("status")),
+                    rs.getString("autor"),
+                    rs.getString("curso"),
+                    rs.getInt("total_respostas"),
+                    rs.getObject("ultima_atividade", LocalDateTime.class),
+                    null), respostas);
+        }
+
+        DadosExportacaoTopico paraDados() {
+            if (respostas == null) {
+                return dados;
+            }
+
+            return new DadosExportacaoTopico(dados.id(), dados.titulo(), dados.mensagem(), dados.dataCriacao(),
+                    dados.status(), dados.autor(), dados.curso(), dados.totalRespostas(), dados.ultimaAtividade(),
+                    respostas);
+        }
+    }
+}
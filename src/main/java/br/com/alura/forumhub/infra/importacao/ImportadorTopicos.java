@@ -0,0 +1,172 @@
+package br.com.alura.forumhub.infra.importacao;
+
+import br.com.alura.forumhub.dto.DadosCadastroTopico;
+import br.com.alura.forumhub.dto.DadosResultadoImportacao;
+import br.com.alura.forumhub.infra.busca.IndiceTopicos;
+import br.com.alura.forumhub.infra.exception.TopicoDuplicado;
+import br.com.alura.forumhub.model.Topico;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Lê NDJSON de DadosCadastroTopico e grava em lotes JDBC, escrevendo um resultado por linha
+@Component
+public class ImportadorTopicos {
+
+    private static final Logger log = LoggerFactory.getLogger(ImportadorTopicos.class);
+    private static final String FALHA_GRAVACAO = "Falha ao gravar o tópico. Tente importar a linha novamente.";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    private final TransactionTemplate transacao;
+    private final Validator validator;
+    private final ObjectMapper mapper;
+    private final IndiceTopicos indiceTopicos;
+    private final int tamanhoLote;
+
+    public ImportadorTopicos(PlatformTransactionManager transactionManager,
+                             Validator validator,
+                             ObjectMapper mapper,
+                             IndiceTopicos indiceTopicos,
+                             @Value("${forumhub.importacao.tamanho-lote:500}") int tamanhoLote) {
+        this.transacao = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.mapper = mapper;
+        this.indiceTopicos = indiceTopicos;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public void importar(InputStream entrada, OutputStream saida) throws IOException {
+        var leitor = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+        List<LinhaImportada> lote = new ArrayList<>(tamanhoLote);
+        Set<String> chavesDoLote = new HashSet<>();
+
+        String conteudo;
+        long numero = 0;
+        while ((conteudo = leitor.readLine()) != null) {
+            numero++;
+            if (conteudo.isBlank()) {
+                continue;
+            }
+
+            DadosCadastroTopico dados;
+            try {
+                dados = mapper.readValue(conteudo, DadosCadastroTopico.class);
+            } catch (JsonProcessingException e) {
+                escrever(saida, DadosResultadoImportacao.erro(numero, List.of("JSON inválido.")));
+                continue;
+            }
+
+            var violacoes = validator.validate(dados);
+            if (!violacoes.isEmpty()) {
+                escrever(saida, DadosResultadoImportacao.erro(numero, violacoes.stream().map(ConstraintViolation::getMessage).sorted().toList()));
+                continue;
+            }
+
+            if (!chavesDoLote.add(dados.titulo() + '\u0000' + dados.mensagem())) {
+                escrever(saida, DadosResultadoImportacao.erro(numero, List.of(TopicoDuplicado.MENSAGEM)));
+                continue;
+            }
+
+            lote.add(new LinhaImportada(numero, dados));
+            if (lote.size() == tamanhoLote) {
+                gravar(lote, saida);
+                lote.clear();
+                chavesDoLote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            gravar(lote, saida);
+        }
+        saida.flush();
+    }
+
+    private void gravar(List<LinhaImportada> lote, OutputStream saida) throws IOException {
+        List<Topico> topicos;
+        try {
+            topicos = transacao.execute(status -> persistir(lote));
+        } catch (PersistenceException | DataAccessException e) {
+            if (TopicoDuplicado.causou(e)) {
+                // Algum registro violou a UNIQUE (titulo, mensagem): refaz o lote linha a linha para isolar o erro
+                gravarIndividualmente(lote, saida);
+            } else {
+                // Deadlock, conexão perdida, timeout etc.: o lote inteiro falhou e repetir linha a linha não ajuda
+                log.warn("Falha ao gravar lote de {} tópicos a partir da linha {}", lote.size(), lote.get(0).numero(), e);
+                for (var linha : lote) {
+                    escrever(saida, DadosResultadoImportacao.erro(linha.numero(), List.of(FALHA_GRAVACAO)));
+                }
+                saida.flush();
+            }
+            return;
+        }
+
+        for (int i = 0; i < lote.size(); i++) {
+            indiceTopicos.indexar(topicos.get(i));
+            escrever(saida, DadosResultadoImportacao.criado(lote.get(i).numero(), topicos.get(i).getId()));
+        }
+        saida.flush();
+    }
+
+    private void gravarIndividualmente(List<LinhaImportada> lote, OutputStream saida) throws IOException {
+        for (var linha : lote) {
+            try {
+                var topico = transacao.execute(status -> persistir(List.of(linha)).get(0));
+                indiceTopicos.indexar(topico);
+                escrever(saida, DadosResultadoImportacao.criado(linha.numero(), topico.getId()));
+            } catch (PersistenceException | DataAccessException e) {
+                if (!TopicoDuplicado.causou(e)) {
+                    log.warn("Falha ao gravar o tópico da linha {}", linha.numero(), e);
+                }
+                escrever(saida, DadosResultadoImportacao.erro(linha.numero(), List.of(TopicoDuplicado.causou(e) ? TopicoDuplicado.MENSAGEM : FALHA_GRAVACAO)));
+            }
+        }
+        saida.flush();
+    }
+
+    private List<Topico> persistir(List<LinhaImportada> linhas) {
+        em.unwrap(Session.class).setJdbcBatchSize(tamanhoLote);
+
+        List<Topico> topicos = new ArrayList<>(linhas.size());
+        for (var linha : linhas) {
+            var topico = new Topico(linha.dados());
+            em.persist(topico);
+            topicos.add(topico);
+        }
+        em.flush();
+        em.clear();
+        return topicos;
+    }
+
+    private void escrever(OutputStream saida, DadosResultadoImportacao resultado) throws IOException {
+        saida.write(mapper.writeValueAsBytes(resultado));
+        saida.write('\n');
+    }
+
+    private record LinhaImportada(long numero, DadosCadastroTopico dados) {
+    }
+}
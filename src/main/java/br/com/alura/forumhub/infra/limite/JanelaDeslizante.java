@@ -0,0 +1,76 @@
+package br.com.alura.forumhub.infra.limite;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Contador de janela deslizante aproximada: a contagem da janela anterior entra com peso proporcional ao
+// quanto dela ainda se sobrepõe à janela móvel. Janela atual, contagem atual e anterior ficam empacotadas
+// num único AtomicLong por chave, então cada requisição é um CAS sem alocar nada
+public class JanelaDeslizante {
+
+    private static final int BITS_CONTAGEM = 20;
+    private static final long MASCARA_CONTAGEM = (1L << BITS_CONTAGEM) - 1;
+    private static final long MASCARA_JANELA = (1L << (64 - 2 * BITS_CONTAGEM)) - 1;
+
+    private final int limite;
+    private final long janelaNanos;
+    private final long origem = System.nanoTime();
+    private final Cache<String, AtomicLong> contadores;
+
+    public JanelaDeslizante(int limite, Duration janela, long maximoChaves) {
+        if (limite <= 0 || limite > MASCARA_CONTAGEM) {
+            throw new IllegalArgumentException("Limite deve estar entre 1 e " + MASCARA_CONTAGEM);
+        }
+        this.limite = limite;
+        this.janelaNanos = janela.toNanos();
+        // Após duas janelas sem acesso as duas contagens seriam zeradas de qualquer forma
+        this.contadores = Caffeine.newBuilder()
+                .maximumSize(maximoChaves)
+                .expireAfterAccess(janela.multipliedBy(2))
+                .build();
+    }
+
+    public int getLimite() {
+        return limite;
+    }
+
+    // Retorna quantas requisições ainda restam após esta, ou -1 se ela foi rejeitada
+    public int registrar(String chave) {
+        var contador = contadores.get(chave, c -> new AtomicLong());
+        while (true) {
+            var decorrido = System.nanoTime() - origem;
+            var janelaAtual = (decorrido / janelaNanos) & MASCARA_JANELA;
+            var fracao = (double) (decorrido % janelaNanos) / janelaNanos;
+
+            var estado = contador.get();
+            var janela = estado >>> (2 * BITS_CONTAGEM);
+            var atual = (estado >>> BITS_CONTAGEM) & MASCARA_CONTAGEM;
+            var anterior = estado & MASCARA_CONTAGEM;
+
+            if (janela != janelaAtual) {
+                // Virou a janela: a atual passa a ser a anterior, ou zera se passou mais de uma janela
+                anterior = ((janelaAtual - janela) & MASCARA_JANELA) == 1 ? atual : 0;
+                atual = 0;
+            }
+
+            var estimado = anterior * (1 - fracao) + atual;
+            if (estimado + 1 > limite) {
+                return -1;
+            }
+
+            var novoEstado = (janelaAtual << (2 * BITS_CONTAGEM)) | ((atual + 1) << BITS_CONTAGEM) | anterior;
+            if (contador.compareAndSet(estado, novoEstado)) {
+                return (int) Math.max(0, limite - Math.ceil(estimado + 1));
+            }
+        }
+    }
+
+    // Nanos até o fim da janela fixa corrente, usado no cabeçalho RateLimit-Reset
+    public long nanosAteProximaJanela() {
+        var decorrido = System.nanoTime() - origem;
+        return janelaNanos - decorrido % janelaNanos;
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.alura.forumhub.infra.limite;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket no formato GCRA: cada chave guarda só o "horário teórico de chegada" (TAT) num AtomicLong,
+// atualizado por CAS, sem locks. O Caffeine limita o número de chaves e descarta as ociosas
+public class LimitadorTaxa {
+
+    private final long intervaloNanos;
+    private final long toleranciaNanos;
+    private final long origem = System.nanoTime();
+    private final Cache<String, AtomicLong> baldes;
+
+    public LimitadorTaxa(int capacidade, Duration periodo, long maximoChaves) {
+        this.intervaloNanos = periodo.toNanos() / capacidade;
+        this.toleranciaNanos = intervaloNanos * (capacidade - 1);
+        // Depois de um período inteiro sem acesso o balde estaria cheio de novo, então descartá-lo não muda nada
+        this.baldes = Caffeine.newBuilder()
+                .maximumSize(maximoChaves)
+                .expireAfterAccess(periodo)
+                .build();
+    }
+
+    // Retorna 0 se a requisição foi aceita, ou quantos nanos faltam para a próxima ser aceita
+    public long consumir(String chave) {
+        var balde = baldes.get(chave, c -> new AtomicLong());
+        while (true) {
+            var agora = System.nanoTime() - origem;
+            var atual = balde.get();
+            var tat = Math.max(atual, agora);
+            var espera = tat - toleranciaNanos - agora;
+            if (espera > 0) {
+                return espera;
+            }
+            if (balde.compareAndSet(atual, tat + intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+}
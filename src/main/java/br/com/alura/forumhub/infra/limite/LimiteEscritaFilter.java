@@ -0,0 +1,83 @@
+package br.com.alura.forumhub.infra.limite;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Cota de escritas por usuário autenticado. Fica logo depois do SecurityFilter, que já identificou o usuário
+@Component
+public class LimiteEscritaFilter extends OncePerRequestFilter {
+
+    private final JanelaDeslizante janela;
+    private final Map<String, Counter> rejeicoes;
+
+    public LimiteEscritaFilter(MeterRegistry registry,
+                               @Value("${forumhub.escrita.limite.capacidade:60}") int capacidade,
+                               @Value("${forumhub.escrita.limite.janela:1m}") Duration duracaoJanela,
+                               @Value("${forumhub.escrita.limite.maximo-chaves:100000}") long maximoChaves) {
+        this.janela = new JanelaDeslizante(capacidade, duracaoJanela, maximoChaves);
+        this.rejeicoes = Map.of(
+                HttpMethod.POST.name(), contadorRejeicoes(registry, HttpMethod.POST),
+                HttpMethod.PUT.name(), contadorRejeicoes(registry, HttpMethod.PUT),
+                HttpMethod.PATCH.name(), contadorRejeicoes(registry, HttpMethod.PATCH),
+                HttpMethod.DELETE.name(), contadorRejeicoes(registry, HttpMethod.DELETE));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rejeicoes.containsKey(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        var autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        if (autenticacao == null || !autenticacao.isAuthenticated() || autenticacao instanceof AnonymousAuthenticationToken) {
+            // Sem usuário (login, cadastro ou requisição que o Spring Security vai negar): não há cota a aplicar
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        var restantes = janela.registrar(autenticacao.getName());
+        var segundosParaReset = TimeUnit.NANOSECONDS.toSeconds(janela.nanosAteProximaJanela() - 1) + 1;
+
+        response.setHeader("RateLimit-Limit", String.valueOf(janela.getLimite()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(Math.max(restantes, 0)));
+        response.setHeader("RateLimit-Reset", String.valueOf(segundosParaReset));
+
+        if (restantes < 0) {
+            rejeicoes.get(request.getMethod()).increment();
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(segundosParaReset));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Limite de escritas excedido. Tente novamente em " + segundosParaReset + " segundos.");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private static Counter contadorRejeicoes(MeterRegistry registry, HttpMethod metodo) {
+        return Counter.builder("forumhub.limite.escrita.rejeicoes")
+                .description("Requisições de escrita rejeitadas por excesso de cota")
+                .tag("metodo", metodo.name())
+                .register(registry);
+    }
+}
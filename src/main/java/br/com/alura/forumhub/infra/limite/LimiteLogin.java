@@ -0,0 +1,41 @@
+package br.com.alura.forumhub.infra.limite;
+
+import br.com.alura.forumhub.infra.exception.LimiteRequisicoesException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class LimiteLogin {
+
+    private final LimitadorTaxa porLogin;
+    private final LimitadorTaxa porIp;
+
+    public LimiteLogin(@Value("${forumhub.login.limite.por-login.capacidade:5}") int capacidadePorLogin,
+                       @Value("${forumhub.login.limite.por-login.periodo:1m}") Duration periodoPorLogin,
+                       @Value("${forumhub.login.limite.por-ip.capacidade:20}") int capacidadePorIp,
+                       @Value("${forumhub.login.limite.por-ip.periodo:1m}") Duration periodoPorIp,
+                       @Value("${forumhub.login.limite.maximo-chaves:100000}") long maximoChaves) {
+        this.porLogin = new LimitadorTaxa(capacidadePorLogin, periodoPorLogin, maximoChaves);
+        this.porIp = new LimitadorTaxa(capacidadePorIp, periodoPorIp, maximoChaves);
+    }
+
+    // Chamado antes de qualquer consulta ao banco ou BCrypt. O login é normalizado como na busca em usuarios
+    // (collation _ci), senão Foo, FOO e foo teriam cotas separadas. O ip deve ser o do cliente: atrás de proxy
+    // ou balanceador, use server.forward-headers-strategy (já ativo no perfil prod) para que getRemoteAddr()
+    // venha do X-Forwarded-For dos proxies confiáveis; sem isso todos os clientes dividem a cota do proxy
+    public void verificar(String login, String ip) {
+        var espera = porIp.consumir(ip);
+        if (espera == 0 && login != null) {
+            espera = porLogin.consumir(login.trim().toLowerCase(Locale.ROOT));
+        }
+
+        if (espera > 0) {
+            var segundos = TimeUnit.NANOSECONDS.toSeconds(espera - 1) + 1;
+            throw new LimiteRequisicoesException("Muitas tentativas de login. Tente novamente em " + segundos + " segundos.", segundos);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.alura.forumhub.infra.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Publica quantos comandos SQL cada requisição executou, por endpoint, para achar N+1 e regressões
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ConsultasPorRequisicaoFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        ContadorConsultas.zerar();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Respostas assíncronas continuam em outra thread, fora do contador: o total aqui seria subestimado
+            if (!request.isAsyncStarted()) {
+                registrar(request);
+            }
+        }
+    }
+
+    private void registrar(HttpServletRequest request) {
+        var uri = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("forumhub.hibernate.consultas")
+                .description("Comandos SQL executados pelo Hibernate por requisição")
+                .baseUnit("consultas")
+                .tag("method", request.getMethod())
+                .tag("uri", uri != null ? uri.toString() : "UNKNOWN")
+                .register(registry)
+                .record(ContadorConsultas.total());
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.alura.forumhub.infra.metricas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registrado no Hibernate para contar os comandos SQL preparados na thread da requisição; comandos executados em
+// outras threads (@Async, executores, StreamingResponseBody) não entram na contagem de nenhuma requisição
+public class ContadorConsultas implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CONTAGEM = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        CONTAGEM.get()[0]++;
+        return sql;
+    }
+
+    public static void zerar() {
+        CONTAGEM.get()[0] = 0;
+    }
+
+    public static int total() {
+        return CONTAGEM.get()[0];
+    }
+}
@@ -0,0 +1,30 @@
+package br.com.alura.forumhub.infra.paginacao;
+
+import br.com.alura.forumhub.infra.exception.ValidacaoException;
+import br.com.alura.forumhub.model.Topico;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+public record CursorTopico(LocalDateTime dataCriacao, Long id) {
+
+    public static CursorTopico de(Topico topico) {
+        return new CursorTopico(topico.getDataCriacao(), topico.getId());
+    }
+
+    public static CursorTopico decodificar(String cursor) {
+        try {
+            var valor = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var partes = valor.split(",", 2);
+            return new CursorTopico(LocalDateTime.parse(partes[0]), Long.valueOf(partes[1]));
+        } catch (RuntimeException e) {
+            throw new ValidacaoException("Cursor de paginação inválido.");
+        }
+    }
+
+    public String codificar() {
+        var valor = dataCriacao + "," + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,31 @@
+package br.com.alura.forumhub.infra.replicacao;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+@FunctionalInterface
+public interface MedidorAtraso {
+
+    // null quando a replicação está parada ou o atraso não pode ser determinado
+    Duration medir(DataSource replica) throws SQLException;
+
+    static MedidorAtraso mysql() {
+        return replica -> {
+            try (var conexao = replica.getConnection(); var comando = conexao.createStatement()) {
+                try (var resultado = comando.executeQuery("SHOW REPLICA STATUS")) {
+                    return resultado.next() ? segundos(resultado.getObject("Seconds_Behind_Source")) : null;
+                } catch (SQLException e) {
+                    // MySQL anterior ao 8.0.22 ou MariaDB
+                    try (var resultado = comando.executeQuery("SHOW SLAVE STATUS")) {
+                        return resultado.next() ? segundos(resultado.getObject("Seconds_Behind_Master")) : null;
+                    }
+                }
+            }
+        };
+    }
+
+    private static Duration segundos(Object valor) {
+        return valor instanceof Number numero ? Duration.ofSeconds(numero.longValue()) : null;
+    }
+}
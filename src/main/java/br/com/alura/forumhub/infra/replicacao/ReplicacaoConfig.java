@@ -0,0 +1,75 @@
+package br.com.alura.forumhub.infra.replicacao;
+
+import br.com.alura.forumhub.infra.datasource.DimensionamentoPool;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ativado com forumhub.replicas.habilitado=true e forumhub.replicas.urls=jdbc:mysql://replica1/...,jdbc:mysql://replica2/...
+// Usuário, senha e as propriedades spring.datasource.hikari.* valem para o primário e para as réplicas
+@Configuration
+@ConditionalOnProperty(name = "forumhub.replicas.habilitado", havingValue = "true")
+public class ReplicacaoConfig {
+
+    @Bean
+    public RoteadorDataSource roteadorDataSource(DataSourceProperties propriedades,
+                                                 Environment environment,
+                                                 MeterRegistry registry,
+                                                 @Value("${forumhub.replicas.urls}") List<String> urls,
+                                                 @Value("${forumhub.replicas.atraso-maximo:2s}") Duration atrasoMaximo,
+                                                 @Value("${forumhub.replicas.intervalo-verificacao:5s}") Duration intervaloVerificacao) {
+        var primario = criarPool(RoteadorDataSource.PRIMARIO, propriedades.determineUrl(), propriedades, environment, registry);
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            var nome = "replica-" + (i + 1);
+            replicas.put(nome, criarPool(nome, urls.get(i).trim(), propriedades, environment, registry));
+        }
+
+        var roteador = new RoteadorDataSource(primario, replicas, MedidorAtraso.mysql(), atrasoMaximo, intervaloVerificacao);
+        for (var nome : roteador.getReplicas()) {
+            Gauge.builder("forumhub.replicas.em.rotacao", roteador, r -> r.isSaudavel(nome) ? 1 : 0)
+                    .description("1 se a réplica está recebendo leituras, 0 se foi retirada por atraso ou falha")
+                    .tag("replica", nome)
+                    .register(registry);
+        }
+        return roteador;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(RoteadorDataSource roteador) {
+        return new LazyConnectionDataSourceProxy(roteador);
+    }
+
+    private static HikariDataSource criarPool(String nome, String url, DataSourceProperties propriedades,
+                                              Environment environment, MeterRegistry registry) {
+        var pool = propriedades.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        // Os pools daqui não são beans: o DimensionamentoPool não passaria por eles
+        DimensionamentoPool.aplicar(pool, environment);
+        pool.setPoolName(nome);
+        // Métricas hikaricp.* separadas por pool (tag pool=primario, replica-1, ...)
+        pool.setMetricRegistry(registry);
+        return pool;
+    }
+}
@@ -0,0 +1,118 @@
+package br.com.alura.forumhub.infra.replicacao;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Transações readOnly vão para uma réplica (round-robin entre as saudáveis); o resto vai para o primário.
+// Deve ficar atrás de um LazyConnectionDataSourceProxy: só assim a conexão é pedida depois que o
+// gerenciador de transação marcou a transação como somente leitura
+public class RoteadorDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    public static final String PRIMARIO = "primario";
+
+    private static final Logger log = LoggerFactory.getLogger(RoteadorDataSource.class);
+
+    private final DataSource primario;
+    private final Map<String, DataSource> replicas;
+    private final MedidorAtraso medidorAtraso;
+    private final Duration atrasoMaximo;
+    private final AtomicInteger proxima = new AtomicInteger();
+    private final ScheduledExecutorService verificador;
+
+    private volatile List<String> replicasSaudaveis;
+
+    public RoteadorDataSource(DataSource primario, Map<String, DataSource> replicas, MedidorAtraso medidorAtraso,
+                              Duration atrasoMaximo, Duration intervaloVerificacao) {
+        this.primario = primario;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.medidorAtraso = medidorAtraso;
+        this.atrasoMaximo = atrasoMaximo;
+
+        Map<Object, Object> destinos = new HashMap<>(replicas);
+        destinos.put(PRIMARIO, primario);
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+
+        verificarReplicas();
+        this.verificador = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+            var thread = new Thread(tarefa, "verificador-replicas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        verificador.scheduleWithFixedDelay(this::verificarReplicas,
+                intervaloVerificacao.toMillis(), intervaloVerificacao.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARIO;
+        }
+
+        var saudaveis = replicasSaudaveis;
+        if (saudaveis.isEmpty()) {
+            // Nenhuma réplica dentro do atraso aceitável: a leitura volta para o primário
+            return PRIMARIO;
+        }
+        return saudaveis.get(Math.floorMod(proxima.getAndIncrement(), saudaveis.size()));
+    }
+
+    public boolean isSaudavel(String replica) {
+        return replicasSaudaveis.contains(replica);
+    }
+
+    public List<String> getReplicas() {
+        return List.copyOf(replicas.keySet());
+    }
+
+    void verificarReplicas() {
+        replicasSaudaveis = replicas.entrySet().stream()
+                .filter(replica -> dentroDoAtraso(replica.getKey(), replica.getValue()))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private boolean dentroDoAtraso(String nome, DataSource replica) {
+        try {
+            var atraso = medidorAtraso.medir(replica);
+            if (atraso == null || atraso.compareTo(atrasoMaximo) > 0) {
+                log.warn("Réplica {} fora de rotação (atraso: {})", nome, atraso == null ? "desconhecido" : atraso);
+                return false;
+            }
+            return true;
+        } catch (Exception e) {
+            log.warn("Réplica {} fora de rotação: {}", nome, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        verificador.shutdownNow();
+        for (var dataSource : replicas.values()) {
+            fechar(dataSource);
+        }
+        fechar(primario);
+    }
+
+    private static void fechar(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.alura.forumhub.infra.security;
+
+import br.com.alura.forumhub.infra.exception.SobrecargaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Executa o BCrypt num pool próprio, limitado ao número de núcleos e com fila curta. Quem chama continua
+// bloqueado até o hash terminar, mas por pouco tempo: com a fila cheia a recusa (503) é imediata, e a espera
+// máxima cobre só a fila à frente (ver esperaRecomendada). Assim uma rajada de logins ocupa as threads
+// do Tomcat por no máximo algumas centenas de milissegundos em vez de se acumular atrás do BCrypt
+public class CodificadorSenhaLimitado implements PasswordEncoder, AutoCloseable {
+
+    private static final String MENSAGEM_SOBRECARGA = "Serviço de autenticação sobrecarregado. Tente novamente em instantes.";
+
+    private final PasswordEncoder delegado;
+    private final ThreadPoolExecutor executor;
+    private final long esperaMaximaNanos;
+
+    public CodificadorSenhaLimitado(PasswordEncoder delegado, int threads, int tamanhoFila, Duration esperaMaxima, MeterRegistry registry) {
+        this.delegado = delegado;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(tamanhoFila), new FabricaDeThreads(), new ThreadPoolExecutor.AbortPolicy());
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        if (registry != null) {
+            new ExecutorServiceMetrics(executor, "bcrypt", Tags.empty()).bindTo(registry);
+        }
+    }
+
+    // Tempo para atravessar a fila cheia e fazer o próprio hash, com folga de 2x para variação de CPU:
+    // (tamanhoFila / threads + 1) hashes, com o custo de um hash medido no delegado
+    public static Duration esperaRecomendada(PasswordEncoder delegado, int threads, int tamanhoFila) {
+        var hash = delegado.encode("medicao-custo");
+        var inicio = System.nanoTime();
+        delegado.matches("medicao-custo", hash);
+        var custo = System.nanoTime() - inicio;
+
+        var hashesAFrente = (tamanhoFila + threads - 1) / threads;
+        return Duration.ofNanos(custo * (hashesAFrente + 1) * 2);
+    }
+
+    @Override
+    public String encode(CharSequence senha) {
+        return executar(() -> delegado.encode(senha));
+    }
+
+    @Override
+    public boolean matches(CharSequence senha, String senhaCodificada) {
+        return executar(() -> delegado.matches(senha, senhaCodificada));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String senhaCodificada) {
+        return delegado.upgradeEncoding(senhaCodificada);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T executar(Callable<T> tarefa) {
+        try {
+            var futuro = executor.submit(tarefa);
+            try {
+                return futuro.get(esperaMaximaNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // O tempo conta desde a entrada na fila, então cobre também a espera por uma thread livre
+                futuro.cancel(true);
+                throw new SobrecargaException(MENSAGEM_SOBRECARGA);
+            }
+        } catch (RejectedExecutionException e) {
+            throw new SobrecargaException(MENSAGEM_SOBRECARGA);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SobrecargaException(MENSAGEM_SOBRECARGA);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static class FabricaDeThreads implements ThreadFactory {
+
+        private final AtomicInteger contador = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable tarefa) {
+            var thread = new Thread(tarefa, "bcrypt-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
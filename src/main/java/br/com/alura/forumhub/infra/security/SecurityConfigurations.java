@@ -1,6 +1,9 @@
 package br.com.alura.forumhub.infra.security;
 
+import br.com.alura.forumhub.infra.limite.LimiteEscritaFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -14,6 +17,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfigurations {
@@ -21,6 +26,9 @@ public class SecurityConfigurations {
     @Autowired
     private SecurityFilter securityFilter;
 
+    @Autowired
+    private LimiteEscritaFilter limiteEscritaFilter;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http.csrf(csrf -> csrf.disable())
@@ -36,9 +44,12 @@ public class SecurityConfigurations {
                     req.requestMatchers(HttpMethod.POST, "/topicos/{id}/respostas").permitAll();
                     */
                     req.requestMatchers("/v3/api-docs/**", "/swagger-ui.html", "/swagger-ui/**").permitAll();
+                    // /actuator/prometheus e /actuator/metrics expõem rotas e volumes: o scraper precisa enviar um token
+                    req.requestMatchers(HttpMethod.GET, "/actuator/health").permitAll();
                     req.anyRequest().authenticated();
                 })
                 .addFilterBefore(securityFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(limiteEscritaFilter, SecurityFilter.class)
                 .build();
     }
 
@@ -48,7 +59,17 @@ public class SecurityConfigurations {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${forumhub.senha.bcrypt.forca:10}") int forca,
+                                           @Value("${forumhub.senha.executor.threads:0}") int threads,
+                                           @Value("${forumhub.senha.executor.tamanho-fila:0}") int tamanhoFila,
+                                           @Value("${forumhub.senha.executor.espera-maxima:0s}") Duration esperaMaxima,
+                                           MeterRegistry registry) {
+        // threads = 0 usa um por núcleo: o BCrypt é CPU-bound e mais threads só aumentariam a latência de todos
+        var tamanhoPool = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // tamanho-fila = 0 usa dois hashes por thread; espera-maxima = 0 calcula a espera pela fila e pelo custo do hash
+        var fila = tamanhoFila > 0 ? tamanhoFila : tamanhoPool * 2;
+        var bcrypt = new BCryptPasswordEncoder(forca);
+        var espera = esperaMaxima.isZero() ? CodificadorSenhaLimitado.esperaRecomendada(bcrypt, tamanhoPool, fila) : esperaMaxima;
+        return new CodificadorSenhaLimitado(bcrypt, tamanhoPool, fila, espera, registry);
     }
 }
@@ -1,6 +1,9 @@
 package br.com.alura.forumhub.infra.security;
 
-import br.com.alura.forumhub.repository.UsuarioRepository;
+import br.com.alura.forumhub.infra.cache.UsuarioCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,7 +23,25 @@ public class SecurityFilter extends OncePerRequestFilter {
     private TokenService tokenService;
 
     @Autowired
-    private UsuarioRepository repository;
+    private UsuarioCache usuarioCache;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private Timer tempoVerificacaoToken;
+    private Timer tempoBuscaUsuario;
+
+    @PostConstruct
+    void registrarMetricas() {
+        tempoVerificacaoToken = Timer.builder("forumhub.seguranca.filtro")
+                .description("Tempo das fases do SecurityFilter")
+                .tag("fase", "verificacao-token")
+                .register(registry);
+        tempoBuscaUsuario = Timer.builder("forumhub.seguranca.filtro")
+                .description("Tempo das fases do SecurityFilter")
+                .tag("fase", "busca-usuario")
+                .register(registry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -30,8 +51,8 @@ public class SecurityFilter extends OncePerRequestFilter {
 
         if (tokenJWT != null) {
             try {
-                var subject = tokenService.getSubject(tokenJWT);
-                var usuario = repository.findByLogin(subject)
+                var subject = tempoVerificacaoToken.record(() -> tokenService.getSubject(tokenJWT));
+                var usuario = tempoBuscaUsuario.record(() -> usuarioCache.buscarPorLogin(subject))
                         .orElse(null);
 
                 if (usuario != null) {
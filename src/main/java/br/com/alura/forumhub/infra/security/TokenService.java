@@ -3,27 +3,51 @@ package br.com.alura.forumhub.infra.security;
 import br.com.alura.forumhub.infra.exception.ValidacaoTokenException;
 import br.com.alura.forumhub.model.Usuario;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class TokenService {
 
-    @Value("${api_key}")
-    private String secret;
+    private static final String ISSUER = "API ForumHub";
+
+    private final Algorithm algoritmo;
+    private final JWTVerifier verificador;
+    private final Cache<String, TokenVerificado> tokensVerificados;
+
+    public TokenService(@Value("${api_key}") String secret,
+                        @Value("${forumhub.cache.tokens.tamanho-maximo:50000}") long tamanhoMaximo) {
+        this.algoritmo = Algorithm.HMAC256(secret);
+        this.verificador = JWT.require(algoritmo)
+                .withIssuer(ISSUER)
+                .acceptExpiresAt(0)
+                .build();
+        this.tokensVerificados = Caffeine.newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoDoToken())
+                .build();
+    }
 
     public String gerarToken(Usuario usuario) {
         try {
-            var algoritmo = Algorithm.HMAC256(secret);
             return JWT.create()
-                    .withIssuer("API ForumHub")
+                    .withIssuer(ISSUER)
                     .withSubject(usuario.getLogin())
                     .withExpiresAt(dataExpiracao())
                     .sign(algoritmo);
@@ -33,14 +57,18 @@ public class TokenService {
     }
 
     public String getSubject(String tokenJWT) {
+        var chave = hash(tokenJWT);
+        var verificado = tokensVerificados.getIfPresent(chave);
+        if (verificado != null && verificado.expiraEm().isAfter(Instant.now())) {
+            return verificado.subject();
+        }
+
         try {
-            var algoritmo = Algorithm.HMAC256(secret);
-            return JWT.require(algoritmo)
-                    .withIssuer("API ForumHub")
-                    .acceptExpiresAt(0)
-                    .build()
-                    .verify(tokenJWT)
-                    .getSubject();
+            var decodificado = verificador.verify(tokenJWT);
+            if (decodificado.getExpiresAtAsInstant() != null) {
+                tokensVerificados.put(chave, new TokenVerificado(decodificado.getSubject(), decodificado.getExpiresAtAsInstant()));
+            }
+            return decodificado.getSubject();
         } catch (JWTVerificationException exception) {
             throw new ValidacaoTokenException("Token JWT inválido ou expirado!");
         }
@@ -50,4 +78,36 @@ public class TokenService {
         // Mantenha o token nascendo expirado para o teste
         return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
     }
+
+    // A chave do cache é o hash do token, para não manter os tokens em claro na memória
+    private static String hash(String tokenJWT) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(tokenJWT.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record TokenVerificado(String subject, Instant expiraEm) {
+    }
+
+    private static class ExpiracaoDoToken implements Expiry<String, TokenVerificado> {
+
+        @Override
+        public long expireAfterCreate(String chave, TokenVerificado token, long agora) {
+            var restante = token.expiraEm().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, restante));
+        }
+
+        @Override
+        public long expireAfterUpdate(String chave, TokenVerificado token, long agora, long duracaoAtual) {
+            return expireAfterCreate(chave, token, agora);
+        }
+
+        @Override
+        public long expireAfterRead(String chave, TokenVerificado token, long agora, long duracaoAtual) {
+            return duracaoAtual;
+        }
+    }
 }
@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class Resposta {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "respostas_seq")
+    @SequenceGenerator(name = "respostas_seq", sequenceName = "respostas_seq", allocationSize = 50)
     private Long id;
 
     private String mensagem;
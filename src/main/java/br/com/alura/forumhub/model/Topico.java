@@ -20,7 +20,10 @@ import java.util.List;
 @EqualsAndHashCode(of = "id")
 public class Topico {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequência (tabela no MySQL) em vez de IDENTITY, para que o Hibernate consiga agrupar os INSERTs em lote
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "topicos_seq")
+    @SequenceGenerator(name = "topicos_seq", sequenceName = "topicos_seq", allocationSize = 50)
     private Long id;
     private String titulo;
     private String mensagem;
@@ -38,6 +41,15 @@ public class Topico {
     private String autor;
     private String curso;
 
+    @Version
+    private Long versao;
+
+    @Column(name = "total_respostas")
+    private int totalRespostas;
+
+    @Column(name = "ultima_atividade")
+    private LocalDateTime ultimaAtividade = LocalDateTime.now();
+
     public Topico(DadosCadastroTopico dados) {
         this.ativo = true;
         this.dataCriacao = LocalDateTime.now();
@@ -46,6 +58,7 @@ public class Topico {
         this.mensagem = dados.mensagem();
         this.autor = dados.autor();
         this.curso = dados.curso();
+        this.ultimaAtividade = this.dataCriacao;
     }
 
     public void atualizarInformacoes(DadosAtualizacaoTopico dados) {
@@ -0,0 +1,66 @@
+package br.com.alura.forumhub.repository;
+
+import br.com.alura.forumhub.model.Topico;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Filtros da listagem (Specification) e da exportação (SQL via JDBC) definidos no mesmo lugar, com as mesmas regras
+public final class FiltrosTopico {
+
+    private FiltrosTopico() {
+    }
+
+    public static Specification<Topico> ativosPorCursoEAno(String curso, Integer ano) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+
+            predicates.add(criteriaBuilder.isTrue(root.get("ativo")));
+
+            if (filtraCurso(curso)) {
+                predicates.add(criteriaBuilder.equal(root.get("curso"), curso));
+            }
+
+            if (ano != null) {
+                var inicio = inicioDoAno(ano);
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.<LocalDateTime>get("dataCriacao"), inicio));
+                predicates.add(criteriaBuilder.lessThan(root.<LocalDateTime>get("dataCriacao"), inicio.plusYears(1)));
+            }
+
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Cláusula WHERE equivalente sobre a tabela topicos com o alias informado; os valores vão para parametros
+    public static String ativosPorCursoEAnoSql(String alias, String curso, Integer ano, List<Object> parametros) {
+        var where = new StringBuilder(" WHERE ").append(alias).append(".ativo = TRUE");
+
+        if (filtraCurso(curso)) {
+            where.append(" AND ").append(alias).append(".curso = ?");
+            parametros.add(curso);
+        }
+
+        if (ano != null) {
+            var inicio = inicioDoAno(ano);
+            where.append(" AND ").append(alias).append(".data_criacao >= ? AND ")
+                    .append(alias).append(".data_criacao < ?");
+            parametros.add(inicio);
+            parametros.add(inicio.plusYears(1));
+        }
+
+        return where.toString();
+    }
+
+    private static boolean filtraCurso(String curso) {
+        return curso != null && !curso.isEmpty();
+    }
+
+    // Intervalo [01/01/ano, 01/01/ano+1) para aproveitar o índice em data_criacao
+    private static LocalDateTime inicioDoAno(int ano) {
+        return LocalDate.of(ano, 1, 1).atStartOfDay();
+    }
+}
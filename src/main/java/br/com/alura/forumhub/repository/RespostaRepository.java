@@ -1,11 +1,23 @@
 package br.com.alura.forumhub.repository;
 
+import br.com.alura.forumhub.dto.DadosListagemResposta;
 import br.com.alura.forumhub.model.Resposta;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
 public interface RespostaRepository extends JpaRepository<Resposta, Long> {
 
-    List<Resposta> findByTopicoId(Long idTopico);
-}
\ No newline at end of file
+    @Query("SELECT new br.com.alura.forumhub.dto.DadosListagemResposta(r.id, r.mensagem, r.dataCriacao, a.login, r.solucao) " +
+            "FROM Resposta r JOIN r.autor a WHERE r.topico.id = :idTopico")
+    Slice<DadosListagemResposta> listarPorTopico(Long idTopico, Pageable paginacao);
+
+    boolean existsByIdAndTopicoId(Long id, Long idTopico);
+
+    @Modifying
+    @Query("UPDATE Resposta r SET r.solucao = CASE WHEN r.id = :idResposta THEN true ELSE false END " +
+            "WHERE r.topico.id = :idTopico AND (r.id = :idResposta OR r.solucao = true)")
+    int marcarComoSolucao(Long idTopico, Long idResposta);
+}
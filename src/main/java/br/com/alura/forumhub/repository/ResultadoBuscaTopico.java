@@ -0,0 +1,24 @@
+package br.com.alura.forumhub.repository;
+
+import br.com.alura.forumhub.model.StatusTopico;
+
+import java.time.LocalDateTime;
+
+public interface ResultadoBuscaTopico {
+
+    Long getId();
+
+    String getTitulo();
+
+    String getMensagem();
+
+    LocalDateTime getDataCriacao();
+
+    StatusTopico getStatus();
+
+    String getAutor();
+
+    String getCurso();
+
+    Double getRelevancia();
+}
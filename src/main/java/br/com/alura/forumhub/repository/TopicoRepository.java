@@ -3,19 +3,77 @@ package br.com.alura.forumhub.repository;
 import br.com.alura.forumhub.model.Topico;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface TopicoRepository extends JpaRepository<Topico, Long>, JpaSpecificationExecutor<Topico> {
-    boolean existsByTituloAndMensagem(String titulo, String mensagem);
-
-    Optional<Topico> findByTituloAndMensagem(String titulo, String mensagem);
-
     Page<Topico> findAllByAtivoTrue(Pageable paginacao);
 
+    List<Topico> findByAtivoTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable paginacao);
+
     @Query("SELECT t FROM Topico t WHERE t.id = :id AND t.ativo = true")
     Optional<Topico> findAtivoById(Long id);
+
+    @Query("SELECT t.versao FROM Topico t WHERE t.id = :id AND t.ativo = true")
+    Optional<Long> findVersaoAtivoById(Long id);
+
+    @Query("SELECT t.versao FROM Topico t WHERE t.id = :id")
+    Optional<Long> findVersaoById(Long id);
+
+    @Modifying
+    @Query("UPDATE Topico t SET t.versao = t.versao + 1 WHERE t.id = :id")
+    int incrementarVersao(Long id);
+
+    @Query(value = "SELECT t.id AS id, t.titulo AS titulo, t.mensagem AS mensagem, t.data_criacao AS dataCriacao, " +
+            "t.status AS status, t.autor AS autor, t.curso AS curso, " +
+            "MATCH (t.titulo, t.mensagem) AGAINST (:termo IN NATURAL LANGUAGE MODE) AS relevancia " +
+            "FROM topicos t " +
+            "WHERE t.ativo = true AND MATCH (t.titulo, t.mensagem) AGAINST (:termo IN NATURAL LANGUAGE MODE) " +
+            "ORDER BY relevancia DESC, t.id DESC",
+            nativeQuery = true)
+    Slice<ResultadoBuscaTopico> buscarPorTexto(String termo, Pageable paginacao);
+
+    @Query("SELECT t.titulo FROM Topico t WHERE t.id = :id")
+    Optional<String> findTituloById(Long id);
+
+    @Query("SELECT t.autor FROM Topico t WHERE t.id = :id AND t.ativo = true")
+    Optional<String> findAutorAtivoById(Long id);
+
+    // GREATEST: respostas concorrentes podem confirmar fora da ordem de criação, e a última atividade só avança
+    @Modifying
+    @Query("UPDATE Topico t SET " +
+            "t.status = CASE WHEN t.status = br.com.alura.forumhub.model.StatusTopico.NAO_RESPONDIDO " +
+            "THEN br.com.alura.forumhub.model.StatusTopico.NAO_SOLUCIONADO ELSE t.status END, " +
+            "t.totalRespostas = t.totalRespostas + 1, t.ultimaAtividade = GREATEST(t.ultimaAtividade, :data), " +
+            "t.versao = t.versao + 1 WHERE t.id = :id")
+    int registrarNovaResposta(Long id, LocalDateTime data);
+
+    // O status vem antes do total: o MySQL aplica as atribuições do SET da esquerda para a direita.
+    // A última atividade e a existência de solução são recalculadas a partir das respostas restantes, já sem a removida
+    @Modifying
+    @Query("UPDATE Topico t SET " +
+            "t.status = CASE " +
+            "WHEN t.status = br.com.alura.forumhub.model.StatusTopico.FECHADO THEN t.status " +
+            "WHEN t.totalRespostas <= 1 THEN br.com.alura.forumhub.model.StatusTopico.NAO_RESPONDIDO " +
+            "WHEN t.status = br.com.alura.forumhub.model.StatusTopico.SOLUCIONADO AND NOT EXISTS " +
+            "(SELECT 1 FROM Resposta r WHERE r.topico.id = :id AND r.solucao = true) " +
+            "THEN br.com.alura.forumhub.model.StatusTopico.NAO_SOLUCIONADO " +
+            "ELSE t.status END, " +
+            "t.totalRespostas = CASE WHEN t.totalRespostas > 0 THEN t.totalRespostas - 1 ELSE 0 END, " +
+            "t.ultimaAtividade = COALESCE((SELECT MAX(r.dataCriacao) FROM Resposta r WHERE r.topico.id = :id), t.dataCriacao), " +
+            "t.versao = t.versao + 1 WHERE t.id = :id")
+    int registrarRespostaRemovida(Long id);
+
+    @Modifying
+    @Query("UPDATE Topico t SET t.status = br.com.alura.forumhub.model.StatusTopico.SOLUCIONADO, " +
+            "t.versao = t.versao + 1 " +
+            "WHERE t.id = :id AND t.status <> br.com.alura.forumhub.model.StatusTopico.FECHADO")
+    int registrarSolucao(Long id);
 }
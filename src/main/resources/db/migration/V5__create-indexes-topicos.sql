@@ -0,0 +1,2 @@
+CREATE INDEX idx_topicos_ativo_curso_data_criacao ON topicos (ativo, curso, data_criacao);
+CREATE INDEX idx_topicos_ativo_data_criacao ON topicos (ativo, data_criacao);
@@ -0,0 +1 @@
+ALTER TABLE topicos ADD COLUMN versao BIGINT NOT NULL DEFAULT 0;
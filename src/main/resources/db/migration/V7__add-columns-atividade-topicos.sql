@@ -0,0 +1,11 @@
+ALTER TABLE topicos
+    ADD COLUMN total_respostas INT NOT NULL DEFAULT 0,
+    ADD COLUMN ultima_atividade DATETIME NULL;
+
+UPDATE topicos t
+SET t.total_respostas = (SELECT COUNT(*) FROM respostas r WHERE r.topico_id = t.id),
+    t.ultima_atividade = COALESCE((SELECT MAX(r.data_criacao) FROM respostas r WHERE r.topico_id = t.id), t.data_criacao);
+
+ALTER TABLE topicos MODIFY ultima_atividade DATETIME NOT NULL;
+
+CREATE INDEX idx_topicos_ativo_ultima_atividade ON topicos (ativo, ultima_atividade);
@@ -0,0 +1 @@
+ALTER TABLE topicos ADD FULLTEXT INDEX ft_topicos_titulo_mensagem (titulo, mensagem);
@@ -0,0 +1,6 @@
+-- Tabelas usadas pelo Hibernate para emular sequências no MySQL (otimizador pooled, allocationSize = 50)
+CREATE TABLE topicos_seq (next_val BIGINT NOT NULL);
+INSERT INTO topicos_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM topicos;
+
+CREATE TABLE respostas_seq (next_val BIGINT NOT NULL);
+INSERT INTO respostas_seq (next_val) SELECT COALESCE(MAX(id), 0) + 51 FROM respostas;
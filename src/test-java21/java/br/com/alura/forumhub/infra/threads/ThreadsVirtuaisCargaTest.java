@@ -0,0 +1,144 @@
+package br.com.alura.forumhub.infra.threads;
+
+import br.com.alura.forumhub.ForumhubApplication;
+import br.com.alura.forumhub.dto.DadosCadastroTopico;
+import br.com.alura.forumhub.infra.security.TokenService;
+import br.com.alura.forumhub.model.Topico;
+import br.com.alura.forumhub.model.Usuario;
+import br.com.alura.forumhub.repository.RespostaRepository;
+import br.com.alura.forumhub.repository.TopicoRepository;
+import br.com.alura.forumhub.repository.UsuarioRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Sobe a aplicação duas vezes (threads de plataforma e threads virtuais) e dispara a mesma carga contra cada uma.
+// Lento e dependente da máquina, por isso só roda com: mvn -Pjava21 test -Dforumhub.carga=true -Dtest=ThreadsVirtuaisCargaTest
+@EnabledIfSystemProperty(named = "forumhub.carga", matches = "true")
+class ThreadsVirtuaisCargaTest {
+
+    private static final int CONCORRENCIA = Integer.getInteger("forumhub.carga.concorrencia", 1000);
+    private static final int REQUISICOES = Integer.getInteger("forumhub.carga.requisicoes", 20000);
+
+    @Test
+    @DisplayName("Compara vazão e latência entre threads de plataforma e threads virtuais sob alta concorrência")
+    void compararModos() throws Exception {
+        var plataforma = medir(false);
+        var virtuais = medir(true);
+
+        System.out.printf("%n%-10s %12s %10s %10s %8s%n", "modo", "req/s", "p50 (ms)", "p99 (ms)", "erros");
+        System.out.println(plataforma);
+        System.out.println(virtuais);
+
+        assertThat(plataforma.erros()).isZero();
+        assertThat(virtuais.erros()).isZero();
+    }
+
+    private Resultado medir(boolean threadsVirtuais) throws Exception {
+        try (var contexto = new SpringApplicationBuilder(ForumhubApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + threadsVirtuais)
+                .run()) {
+
+            contexto.getBean(RespostaRepository.class).deleteAll();
+            var topicoRepository = contexto.getBean(TopicoRepository.class);
+            var usuarioRepository = contexto.getBean(UsuarioRepository.class);
+            topicoRepository.deleteAll();
+            usuarioRepository.deleteAll();
+
+            var usuario = usuarioRepository.save(new Usuario(null, "carga", "123456"));
+            var token = "Bearer " + contexto.getBean(TokenService.class).gerarToken(usuario);
+            for (int i = 0; i < 50; i++) {
+                topicoRepository.save(new Topico(new DadosCadastroTopico("Carga " + i, "Mensagem " + i, "carga", "Java")));
+            }
+
+            var porta = contexto.getEnvironment().getProperty("local.server.port");
+            var listagem = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/topicos?size=20"))
+                    .header("Authorization", token)
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+
+            // Aquecimento para JIT, pool de conexões e caches
+            disparar(listagem, 100, 2000);
+
+            return new Resultado(threadsVirtuais ? "virtuais" : "plataforma", disparar(listagem, CONCORRENCIA, REQUISICOES));
+        }
+    }
+
+    private Medicao disparar(HttpRequest requisicao, int concorrencia, int total) throws Exception {
+        var cliente = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        var permissoes = new Semaphore(concorrencia);
+        var latencias = new long[total];
+        var erros = new AtomicInteger();
+
+        var inicio = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tarefas = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                var indice = i;
+                permissoes.acquire();
+                tarefas.add(executor.submit(() -> {
+                    var antes = System.nanoTime();
+                    try {
+                        var resposta = cliente.send(requisicao, HttpResponse.BodyHandlers.discarding());
+                        if (resposta.statusCode() != 200) {
+                            erros.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        erros.incrementAndGet();
+                    } finally {
+                        latencias[indice] = System.nanoTime() - antes;
+                        permissoes.release();
+                    }
+                    return null;
+                }));
+            }
+            for (var tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+        var duracao = System.nanoTime() - inicio;
+
+        Arrays.sort(latencias);
+        return new Medicao(total * 1_000_000_000.0 / duracao,
+                latencias[total / 2] / 1_000_000.0,
+                latencias[(int) (total * 0.99)] / 1_000_000.0,
+                erros.get());
+    }
+
+    private record Medicao(double vazao, double p50, double p99, int erros) {
+    }
+
+    private record Resultado(String modo, Medicao medicao) {
+
+        int erros() {
+            return medicao.erros();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s %12.1f %10.2f %10.2f %8d", modo, medicao.vazao(), medicao.p50(), medicao.p99(), medicao.erros());
+        }
+    }
+}
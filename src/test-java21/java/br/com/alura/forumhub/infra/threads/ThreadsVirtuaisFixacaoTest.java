@@ -0,0 +1,143 @@
+package br.com.alura.forumhub.infra.threads;
+
+import br.com.alura.forumhub.dto.DadosCadastroResposta;
+import br.com.alura.forumhub.dto.DadosCadastroTopico;
+import br.com.alura.forumhub.infra.security.TokenService;
+import br.com.alura.forumhub.model.Topico;
+import br.com.alura.forumhub.model.Usuario;
+import br.com.alura.forumhub.repository.RespostaRepository;
+import br.com.alura.forumhub.repository.TopicoRepository;
+import br.com.alura.forumhub.repository.UsuarioRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.json.JacksonTester;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+@AutoConfigureMockMvc
+@AutoConfigureJsonTesters
+@ActiveProfiles("test")
+class ThreadsVirtuaisFixacaoTest {
+
+    private static final int REQUISICOES = 200;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JacksonTester<DadosCadastroTopico> dadosCadastroTopicoJson;
+
+    @Autowired
+    private JacksonTester<DadosCadastroResposta> dadosCadastroRespostaJson;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private RespostaRepository respostaRepository;
+
+    private String token;
+    private Topico topico;
+
+    @BeforeEach
+    void setUp() {
+        respostaRepository.deleteAll();
+        topicoRepository.deleteAll();
+        usuarioRepository.deleteAll();
+
+        var usuario = usuarioRepository.save(new Usuario(null, "thread.virtual", "123456"));
+        this.token = "Bearer " + tokenService.gerarToken(usuario);
+        this.topico = topicoRepository.save(new Topico(new DadosCadastroTopico("Threads virtuais", "Fixação da portadora", usuario.getLogin(), "Java")));
+    }
+
+    @Test
+    @DisplayName("Requisições autenticadas em threads virtuais não deveriam fixar a thread portadora")
+    void requisicoesNaoFixamThreadPortadora() throws Exception {
+        // Primeira rodada fora da gravação: inicialização de classes e do pool também pode fixar, mas só uma vez
+        executarEmThreadsVirtuais("aquecimento");
+
+        List<RecordedEvent> fixacoes = new CopyOnWriteArrayList<>();
+        try (var gravacao = new RecordingStream()) {
+            gravacao.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            gravacao.onEvent("jdk.VirtualThreadPinned", fixacoes::add);
+            gravacao.startAsync();
+
+            executarEmThreadsVirtuais("medicao");
+
+            gravacao.stop();
+        }
+
+        assertThat(fixacoes)
+                .withFailMessage(() -> "Threads virtuais fixadas na portadora:\n" + fixacoes.stream()
+                        .map(ThreadsVirtuaisFixacaoTest::pilha)
+                        .collect(Collectors.joining("\n---\n")))
+                .isEmpty();
+    }
+
+    // Exercita o SecurityFilter (token + UsuarioCache) e o caminho JPA de leitura e de escrita
+    private void executarEmThreadsVirtuais(String rodada) throws Exception {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int i = 0; i < REQUISICOES; i++) {
+                var indice = i;
+                tarefas.add(executor.submit(() -> {
+                    mvc.perform(get("/topicos/" + topico.getId()).header("Authorization", token));
+                    mvc.perform(get("/topicos").header("Authorization", token));
+                    if (indice % 10 == 0) {
+                        var dados = new DadosCadastroTopico(rodada + " " + indice, "Mensagem " + indice, "thread.virtual", "Java");
+                        mvc.perform(post("/topicos")
+                                .header("Authorization", token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(dadosCadastroTopicoJson.write(dados).getJson()));
+                        mvc.perform(post("/topicos/" + topico.getId() + "/respostas")
+                                .header("Authorization", token)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(dadosCadastroRespostaJson.write(new DadosCadastroResposta("Resposta " + rodada + " " + indice)).getJson()));
+                    }
+                    return null;
+                }));
+            }
+            for (var tarefa : tarefas) {
+                tarefa.get();
+            }
+        }
+    }
+
+    private static String pilha(RecordedEvent evento) {
+        if (evento.getStackTrace() == null) {
+            return "(sem pilha)";
+        }
+        return evento.getStackTrace().getFrames().stream()
+                .map(RecordedFrame::getMethod)
+                .map(m -> m.getType().getName() + "." + m.getName())
+                .collect(Collectors.joining("\n  at "));
+    }
+}
@@ -15,8 +15,11 @@ import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
 
+import static br.com.alura.forumhub.infra.metricas.ConsultasSql.executou;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -70,8 +73,48 @@ class AutenticacaoControllerTest {
                                 .content(dadosAutenticacaoJson.write(dadosAutenticacao).getJson())
                 )
                 .andExpect(status().isOk())
+                .andExpect(executou(1))
                 .andExpect(jsonPath("$.token").exists())
                 .andExpect(jsonPath("$.token").isString())
                 .andExpect(jsonPath("$.token").isNotEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deveria retornar código 429 com Retry-After ao exceder as tentativas de login da mesma conta")
+    void efetuarLogin_cenario3() throws Exception {
+        var dadosAutenticacao = new DadosAutenticacao("alvo.de.ataque@voll.med", "senhaErrada");
+        var json = dadosAutenticacaoJson.write(dadosAutenticacao).getJson();
+
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(post("/login").with(ip("10.0.18." + i)).contentType(MediaType.APPLICATION_JSON).content(json))
+                    .andExpect(status().isForbidden());
+        }
+
+        mvc.perform(post("/login").with(ip("10.0.18.99")).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(executou(0));
+    }
+
+    @Test
+    @DisplayName("Variações de maiúsculas do mesmo login deveriam dividir a mesma cota de tentativas")
+    void efetuarLogin_cenario4() throws Exception {
+        var variacoes = new String[]{"Alvo.Caixa@voll.med", "ALVO.CAIXA@VOLL.MED", "alvo.caixa@voll.med", " Alvo.caixa@Voll.med", "alvo.CAIXA@voll.med"};
+        for (int i = 0; i < variacoes.length; i++) {
+            var json = dadosAutenticacaoJson.write(new DadosAutenticacao(variacoes[i], "senhaErrada")).getJson();
+            mvc.perform(post("/login").with(ip("10.0.19." + i)).contentType(MediaType.APPLICATION_JSON).content(json))
+                    .andExpect(status().isForbidden());
+        }
+
+        var json = dadosAutenticacaoJson.write(new DadosAutenticacao("aLvO.cAiXa@voll.med", "senhaErrada")).getJson();
+        mvc.perform(post("/login").with(ip("10.0.19.99")).contentType(MediaType.APPLICATION_JSON).content(json))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    private static RequestPostProcessor ip(String endereco) {
+        return request -> {
+            request.setRemoteAddr(endereco);
+            return request;
+        };
+    }
+}
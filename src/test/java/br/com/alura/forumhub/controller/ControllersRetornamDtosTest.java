@@ -0,0 +1,92 @@
+package br.com.alura.forumhub.controller;
+
+import jakarta.persistence.Entity;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ControllersRetornamDtosTest {
+
+    @Test
+    @DisplayName("Nenhum endpoint deveria serializar entidades JPA diretamente")
+    void endpointsNaoExpoemEntidades() throws Exception {
+        var scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(RestController.class));
+
+        List<String> violacoes = new ArrayList<>();
+        for (var candidato : scanner.findCandidateComponents("br.com.alura.forumhub")) {
+            var controller = Class.forName(candidato.getBeanClassName());
+            for (var metodo : controller.getDeclaredMethods()) {
+                if (!AnnotatedElementUtils.hasAnnotation(metodo, RequestMapping.class)) {
+                    continue;
+                }
+
+                var tipoRetorno = metodo.getGenericReturnType();
+                if (tipoRetorno == ResponseEntity.class) {
+                    violacoes.add(controller.getSimpleName() + "." + metodo.getName() + " retorna ResponseEntity sem tipo");
+                } else if (expoeEntidade(tipoRetorno, new HashSet<>())) {
+                    violacoes.add(controller.getSimpleName() + "." + metodo.getName() + " expõe uma entidade JPA");
+                }
+            }
+        }
+
+        assertThat(violacoes).isEmpty();
+    }
+
+    private boolean expoeEntidade(Type tipo, Set<Type> visitados) {
+        if (!visitados.add(tipo)) {
+            return false;
+        }
+
+        if (tipo instanceof Class<?> classe) {
+            if (classe.isAnnotationPresent(Entity.class)) {
+                return true;
+            }
+            if (classe.isRecord()) {
+                for (var componente : classe.getRecordComponents()) {
+                    if (expoeEntidade(componente.getGenericType(), visitados)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        if (tipo instanceof ParameterizedType parametrizado) {
+            if (expoeEntidade(parametrizado.getRawType(), visitados)) {
+                return true;
+            }
+            for (var argumento : parametrizado.getActualTypeArguments()) {
+                if (expoeEntidade(argumento, visitados)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        if (tipo instanceof WildcardType curinga) {
+            for (var limite : curinga.getUpperBounds()) {
+                if (expoeEntidade(limite, visitados)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+}
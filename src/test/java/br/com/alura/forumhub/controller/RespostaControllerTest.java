@@ -16,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import static br.com.alura.forumhub.infra.metricas.ConsultasSql.executou;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.json.JacksonTester;
@@ -24,6 +25,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.hasSize;
 
 import java.time.LocalDateTime;
@@ -31,7 +33,9 @@ import java.time.LocalDateTime;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -69,7 +73,7 @@ class RespostaControllerTest {
 
         this.autor = usuarioRepository.save(new Usuario(null, "autor.teste", "123456"));
 
-        this.topico = new Topico(null, "Tópico de Teste", "Mensagem do tópico", true, LocalDateTime.now(), StatusTopico.NAO_RESPONDIDO, null, autor.getUsername(), "Spring Boot");
+        this.topico = new Topico(null, "Tópico de Teste", "Mensagem do tópico", true, LocalDateTime.now(), StatusTopico.NAO_RESPONDIDO, null, autor.getUsername(), "Spring Boot", null, 0, LocalDateTime.now());
         topicoRepository.save(this.topico);
     }
 
@@ -108,6 +112,8 @@ class RespostaControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(dadosCadastroRespostaJson.write(dados).getJson()))
                 .andExpect(status().isCreated())
+                // título do tópico + INSERT da resposta + UPDATE dos contadores do tópico
+                .andExpect(executou(3))
                 .andReturn().getResponse();
 
         var jsonRetornado = response.getContentAsString();
@@ -117,6 +123,11 @@ class RespostaControllerTest {
 
         assertThat(mensagemDoJson).isEqualTo(dados.mensagem());
         assertThat(autorDoJson).isEqualTo(autorResposta.getUsername());
+        assertThat(JsonPath.<String>read(jsonRetornado, "$.nomeTopico")).isEqualTo(topico.getTitulo());
+
+        var topicoAtualizado = topicoRepository.findById(topico.getId()).orElseThrow();
+        assertThat(topicoAtualizado.getTotalRespostas()).isEqualTo(1);
+        assertThat(topicoAtualizado.getUltimaAtividade()).isAfterOrEqualTo(topico.getDataCriacao().withNano(0));
     }
 
     @Test
@@ -131,7 +142,10 @@ class RespostaControllerTest {
         mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas")
                         .with(user(this.autor)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(2)));
+                // Versão do tópico para o ETag + uma única consulta com JOIN no autor (sem N+1)
+                .andExpect(executou(2))
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[0].nomeAutor").value("comentarista"));
     }
 
     @Test
@@ -142,7 +156,74 @@ class RespostaControllerTest {
         mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas")
                         .with(user(this.autor)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.content", hasSize(0)));
+    }
+
+    @Test
+    @DisplayName("GET - Deveria retornar as respostas paginadas")
+    void listarRespostas_cenario3() throws Exception {
+        // Arrange
+        var autorResposta = usuarioRepository.save(new Usuario(null, "comentarista", "123"));
+        respostaRepository.save(new Resposta(null, "Primeira resposta", this.topico, LocalDateTime.now(), autorResposta, false));
+        respostaRepository.save(new Resposta(null, "Segunda resposta", this.topico, LocalDateTime.now().plusMinutes(1), autorResposta, false));
+
+        // Act & Assert
+        mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas")
+                        .param("size", "1")
+                        .with(user(this.autor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].mensagem").value("Primeira resposta"))
+                .andExpect(jsonPath("$.last").value(false));
+    }
+
+    @Test
+    @DisplayName("GET - Deveria retornar 404 ao listar respostas de um tópico inexistente")
+    void listarRespostas_cenario4() throws Exception {
+        mvc.perform(get("/topicos/999/respostas")
+                        .with(user(this.autor)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("GET - Deveria retornar 304 com ETag válido e 200 após uma nova resposta")
+    void listarRespostas_cenario5_etag() throws Exception {
+        var etag = mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas")
+                        .with(user(this.autor)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas")
+                        .header("If-None-Match", etag)
+                        .with(user(this.autor)))
+                .andExpect(status().isNotModified())
+                .andExpect(executou(1));
+
+        var dados = new DadosCadastroResposta("Resposta que muda a versão do tópico");
+        mvc.perform(post("/topicos/" + this.topico.getId() + "/respostas")
+                        .with(user(this.autor))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(dadosCadastroRespostaJson.write(dados).getJson()))
+                .andExpect(status().isCreated());
+
+        mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas")
+                        .header("If-None-Match", etag)
+                        .with(user(this.autor)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)));
+    }
+
+    @Test
+    @DisplayName("GET - O ETag deveria codificar a ordenação de forma estável entre instâncias e distinguir ordenações")
+    void listarRespostas_cenario6_etagOrdenacao() throws Exception {
+        // SHA-256 de Sort.toString() ("dataCriacao: ASC" / "dataCriacao: DESC"), fixo em qualquer JVM
+        mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas")
+                        .with(user(this.autor)))
+                .andExpect(header().string("ETag", endsWith("-0-10-CEz1KUk-xIgsUaCE\"")));
+
+        mvc.perform(get("/topicos/" + this.topico.getId() + "/respostas?sort=dataCriacao,desc")
+                        .with(user(this.autor)))
+                .andExpect(header().string("ETag", endsWith("-0-10-KAD4aHIhV76iRDHY\"")));
     }
 
     @Test
@@ -189,7 +270,9 @@ class RespostaControllerTest {
         mvc.perform(
                 delete("/topicos/{idTopico}/respostas/{idResposta}", topico.getId(), resposta.getId())
                         .with(user(autorResposta))
-        ).andExpect(status().isNoContent());
+        ).andExpect(status().isNoContent())
+                // resposta + DELETE + UPDATE do tópico; o autor da resposta não consulta o tópico
+                .andExpect(executou(3));
     }
 
     @Test
@@ -218,6 +301,91 @@ class RespostaControllerTest {
         mvc.perform(
                 delete("/topicos/{idTopico}/respostas/{idResposta}", this.topico.getId(), resposta.getId())
                         .with(user(this.autor))
-        ).andExpect(status().isNoContent());
+        ).andExpect(status().isNoContent())
+                // resposta + autor do tópico + DELETE + UPDATE do tópico
+                .andExpect(executou(4));
+    }
+
+    @Test
+    @DisplayName("DELETE - Deveria recalcular a última atividade do tópico a partir das respostas restantes")
+    void deletarResposta_cenario4_ultimaAtividade() throws Exception {
+        var criacao = LocalDateTime.of(2024, 1, 1, 10, 0);
+        var topico = topicoRepository.save(new Topico(null, "Tópico com atividade", "Mensagem", true, criacao,
+                StatusTopico.NAO_SOLUCIONADO, null, autor.getUsername(), "Java", null, 2, criacao.plusDays(2)));
+        var antiga = respostaRepository.save(new Resposta(null, "Resposta antiga", topico, criacao.plusDays(1), autor, false));
+        var recente = respostaRepository.save(new Resposta(null, "Resposta recente", topico, criacao.plusDays(2), autor, false));
+
+        mvc.perform(delete("/topicos/{idTopico}/respostas/{idResposta}", topico.getId(), recente.getId()).with(user(autor)))
+                .andExpect(status().isNoContent());
+        assertThat(topicoRepository.findById(topico.getId()).orElseThrow().getUltimaAtividade()).isEqualTo(criacao.plusDays(1));
+
+        mvc.perform(delete("/topicos/{idTopico}/respostas/{idResposta}", topico.getId(), antiga.getId()).with(user(autor)))
+                .andExpect(status().isNoContent());
+        assertThat(topicoRepository.findById(topico.getId()).orElseThrow().getUltimaAtividade()).isEqualTo(criacao);
+    }
+
+    @Test
+    @DisplayName("DELETE - O status deveria depender das soluções que restam no banco, não da resposta carregada")
+    void deletarResposta_cenario5_solucao() throws Exception {
+        var topico = topicoRepository.save(new Topico(null, "Tópico solucionado", "Mensagem", true, LocalDateTime.now(),
+                StatusTopico.SOLUCIONADO, null, autor.getUsername(), "Java", null, 3, LocalDateTime.now()));
+        var comum = respostaRepository.save(new Resposta(null, "Resposta comum", topico, LocalDateTime.now(), autor, false));
+        var solucao = respostaRepository.save(new Resposta(null, "Resposta solução", topico, LocalDateTime.now(), autor, true));
+        respostaRepository.save(new Resposta(null, "Outra resposta", topico, LocalDateTime.now(), autor, false));
+
+        mvc.perform(delete("/topicos/{idTopico}/respostas/{idResposta}", topico.getId(), comum.getId()).with(user(autor)))
+                .andExpect(status().isNoContent());
+        assertThat(topicoRepository.findById(topico.getId()).orElseThrow().getStatus()).isEqualTo(StatusTopico.SOLUCIONADO);
+
+        mvc.perform(delete("/topicos/{idTopico}/respostas/{idResposta}", topico.getId(), solucao.getId()).with(user(autor)))
+                .andExpect(status().isNoContent());
+        assertThat(topicoRepository.findById(topico.getId()).orElseThrow().getStatus()).isEqualTo(StatusTopico.NAO_SOLUCIONADO);
+    }
+
+    @Test
+    @DisplayName("POST - Deveria mudar o status do tópico para NAO_SOLUCIONADO ao receber a primeira resposta")
+    void criarResposta_cenario4_status() throws Exception {
+        var dados = new DadosCadastroResposta("Primeira resposta do tópico");
+
+        mvc.perform(post("/topicos/" + topico.getId() + "/respostas")
+                        .with(user(this.autor))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(dadosCadastroRespostaJson.write(dados).getJson()))
+                .andExpect(status().isCreated());
+
+        var topicoAtualizado = topicoRepository.findById(topico.getId()).orElseThrow();
+        assertThat(topicoAtualizado.getStatus()).isEqualTo(StatusTopico.NAO_SOLUCIONADO);
+    }
+
+    @Test
+    @DisplayName("PATCH - Deveria retornar 204 e marcar o tópico como SOLUCIONADO quando o autor do tópico escolhe a solução")
+    void marcarComoSolucao_cenario1() throws Exception {
+        // Arrange
+        var autorResposta = usuarioRepository.save(new Usuario(null, "solucionador", "123"));
+        var resposta = respostaRepository.save(new Resposta(null, "Resposta certa", this.topico, LocalDateTime.now(), autorResposta, false));
+
+        // Act & Assert
+        mvc.perform(patch("/topicos/{idTopico}/respostas/{idResposta}/solucao", this.topico.getId(), resposta.getId())
+                        .with(user(this.autor)))
+                .andExpect(status().isNoContent())
+                // Autor do tópico, existência da resposta e dois UPDATEs em massa, sem carregar entidades
+                .andExpect(executou(4));
+
+        assertThat(respostaRepository.findById(resposta.getId()).orElseThrow().getSolucao()).isTrue();
+        assertThat(topicoRepository.findById(this.topico.getId()).orElseThrow().getStatus()).isEqualTo(StatusTopico.SOLUCIONADO);
+    }
+
+    @Test
+    @DisplayName("PATCH - Deveria retornar 400 quando quem marca a solução não é o autor do tópico")
+    void marcarComoSolucao_cenario2() throws Exception {
+        // Arrange
+        var autorResposta = usuarioRepository.save(new Usuario(null, "espertinho", "123"));
+        var resposta = respostaRepository.save(new Resposta(null, "Minha própria resposta", this.topico, LocalDateTime.now(), autorResposta, false));
+
+        // Act & Assert
+        mvc.perform(patch("/topicos/{idTopico}/respostas/{idResposta}/solucao", this.topico.getId(), resposta.getId())
+                        .with(user(autorResposta)))
+                .andExpect(status().isBadRequest())
+                .andExpect(executou(1));
     }
-}
\ No newline at end of file
+}
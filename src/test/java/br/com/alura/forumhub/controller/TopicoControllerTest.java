@@ -4,10 +4,13 @@ import org.springframework.security.test.context.support.WithUserDetails;
 import br.com.alura.forumhub.repository.UsuarioRepository;
 import br.com.alura.forumhub.dto.DadosAtualizacaoTopico;
 import br.com.alura.forumhub.dto.DadosCadastroTopico;
+import br.com.alura.forumhub.infra.security.TokenService;
 import br.com.alura.forumhub.model.StatusTopico;
 import br.com.alura.forumhub.model.Usuario;
 import br.com.alura.forumhub.model.Topico;
 import br.com.alura.forumhub.repository.TopicoRepository;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -16,15 +19,24 @@ import org.springframework.boot.test.autoconfigure.json.AutoConfigureJsonTesters
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.json.JacksonTester;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static br.com.alura.forumhub.infra.metricas.ConsultasSql.executou;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -48,6 +60,12 @@ class TopicoControllerTest {
     @Autowired
     private UsuarioRepository usuarioRepository;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private TokenService tokenService;
+
     @BeforeEach
     void cleanup() {
         topicoRepository.deleteAll();
@@ -73,7 +91,9 @@ class TopicoControllerTest {
         var dadosCadastro = new DadosCadastroTopico("Dúvida sobre MockMvc", "Como faço para testar?", "Fulano de Tal", "Spring Boot");
         mvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON).characterEncoding("UTF-8").content(dadosCadastroJson.write(dadosCadastro).getJson()))
                 .andExpect(status().isCreated())
-                .andExpect(jsonPath("$.titulo").value("Dúvida sobre MockMvc"));
+                .andExpect(jsonPath("$.titulo").value("Dúvida sobre MockMvc"))
+                // só o INSERT: a duplicidade fica com a UNIQUE e o id vem da sequência, fora do contador
+                .andExpect(executou(1));
     }
 
     @Test
@@ -105,6 +125,146 @@ class TopicoControllerTest {
         assertThat(response.getStatus()).isEqualTo(HttpStatus.CONFLICT.value());
     }
 
+    @Test
+    @DisplayName("POST /topicos - Não deveria tratar como duplicado um título maior que a coluna")
+    @WithMockUser
+    void cadastrar_cenario6_tituloLongo() {
+        var dadosCadastro = new DadosCadastroTopico("T".repeat(101), "Mensagem válida", "Ciclano", "Java");
+
+        assertThatThrownBy(() -> mvc.perform(post("/topicos").contentType(MediaType.APPLICATION_JSON).content(dadosCadastroJson.write(dadosCadastro).getJson())))
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    @DisplayName("POST /topicos - Deveria informar a cota nos cabeçalhos RateLimit e retornar 429 ao excedê-la")
+    @WithMockUser(username = "escritor.apressado")
+    void cadastrar_cenario5_limiteEscrita() throws Exception {
+        mvc.perform(post("/topicos"))
+                .andExpect(status().isBadRequest())
+                .andExpect(header().string("RateLimit-Limit", "60"))
+                .andExpect(header().string("RateLimit-Remaining", "59"))
+                .andExpect(header().exists("RateLimit-Reset"));
+
+        for (int i = 1; i < 60; i++) {
+            mvc.perform(post("/topicos")).andExpect(status().isBadRequest());
+        }
+
+        mvc.perform(post("/topicos"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("RateLimit-Remaining", "0"))
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    @DisplayName("POST /topicos/importacao - Deveria gravar as linhas válidas e reportar o erro de cada linha inválida")
+    @WithMockUser
+    void importar_cenario1() throws Exception {
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Já existe", "Mensagem existente.", "Ciclano", "Java")));
+        var ndjson = String.join("\n",
+                dadosCadastroJson.write(new DadosCadastroTopico("Importado 1", "Mensagem 1", "Fulano de Tal", "Spring Boot")).getJson(),
+                "{ isto não é json",
+                dadosCadastroJson.write(new DadosCadastroTopico("", "Sem título", "Fulano de Tal", "Spring Boot")).getJson(),
+                dadosCadastroJson.write(new DadosCadastroTopico("Já existe", "Mensagem existente.", "Ciclano", "Java")).getJson(),
+                dadosCadastroJson.write(new DadosCadastroTopico("Importado 2", "Mensagem 2", "Fulano de Tal", "Spring Boot")).getJson());
+
+        var response = mvc.perform(post("/topicos/importacao")
+                        .contentType("application/x-ndjson")
+                        .accept("application/x-ndjson")
+                        .characterEncoding("UTF-8")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse();
+
+        var linhas = response.getContentAsString().lines().toList();
+        assertThat(linhas).hasSize(5);
+        assertThat(linhas).filteredOn(l -> l.contains("\"CRIADO\"")).hasSize(2);
+        assertThat(linhas).filteredOn(l -> l.contains("\"ERRO\"")).hasSize(3);
+        assertThat(topicoRepository.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("POST /topicos/importacao - Erro de banco que não é duplicidade deveria ser relatado como falha, não como duplicado")
+    @WithMockUser
+    void importar_cenario2_falhaNaoDuplicada() throws Exception {
+        var ndjson = String.join("\n",
+                dadosCadastroJson.write(new DadosCadastroTopico("T".repeat(101), "Título maior que a coluna", "Fulano de Tal", "Java")).getJson(),
+                dadosCadastroJson.write(new DadosCadastroTopico("Mesmo lote", "Mensagem", "Fulano de Tal", "Java")).getJson());
+
+        var linhas = mvc.perform(post("/topicos/importacao")
+                        .contentType("application/x-ndjson")
+                        .accept("application/x-ndjson")
+                        .characterEncoding("UTF-8")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().lines().toList();
+
+        // O lote falhou inteiro e não é refeito linha a linha
+        assertThat(linhas).hasSize(2).allMatch(l -> l.contains("\"ERRO\"") && l.contains("Falha ao gravar"));
+        assertThat(topicoRepository.count()).isZero();
+    }
+
+    // #################### TESTES DO GET /topicos/exportacao ####################
+
+    @Test
+    @DisplayName("GET /topicos/exportacao - Deveria exportar em NDJSON apenas os tópicos ativos do curso filtrado")
+    @WithMockUser
+    void exportar_cenario1() throws Exception {
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Exportado 1", "Mensagem 1", "Fulano de Tal", "Spring Boot")));
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Exportado 2", "Mensagem 2", "Fulano de Tal", "Spring Boot")));
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Outro curso", "Mensagem 3", "Fulano de Tal", "Java")));
+
+        var resultado = mvc.perform(get("/topicos/exportacao").param("curso", "Spring Boot"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        resultado.getAsyncResult();
+
+        var linhas = resultado.getResponse().getContentAsString().lines().toList();
+        assertThat(linhas).hasSize(2);
+        assertThat(JsonPath.<String>read(linhas.get(0), "$.titulo")).isEqualTo("Exportado 1");
+        assertThat(JsonPath.<String>read(linhas.get(1), "$.titulo")).isEqualTo("Exportado 2");
+        assertThat(linhas.get(0)).doesNotContain("respostas");
+    }
+
+    @Test
+    @DisplayName("GET /topicos/exportacao - Deveria exportar os mesmos tópicos que GET /topicos para os mesmos filtros")
+    @WithMockUser
+    void exportar_cenario2_mesmosFiltrosDaListagem() throws Exception {
+        var em2023 = LocalDateTime.of(2023, 12, 31, 23, 59);
+        var em2024 = LocalDateTime.of(2024, 1, 1, 0, 0);
+        topicoRepository.save(new Topico(null, "Java 2023", "Mensagem", true, em2023, StatusTopico.NAO_RESPONDIDO, null, "Autor", "Java", null, 0, em2023));
+        topicoRepository.save(new Topico(null, "Java 2024", "Mensagem", true, em2024, StatusTopico.NAO_RESPONDIDO, null, "Autor", "Java", null, 0, em2024));
+        topicoRepository.save(new Topico(null, "Spring 2024", "Mensagem", true, em2024, StatusTopico.NAO_RESPONDIDO, null, "Autor", "Spring Boot", null, 0, em2024));
+        topicoRepository.save(new Topico(null, "Java inativo", "Mensagem", false, em2024, StatusTopico.NAO_RESPONDIDO, null, "Autor", "Java", null, 0, em2024));
+
+        var filtros = List.of(
+                new String[]{null, null}, new String[]{"", null}, new String[]{"Java", null},
+                new String[]{null, "2024"}, new String[]{"Java", "2024"}, new String[]{"Java", "2022"});
+        for (var filtro : filtros) {
+            var listagem = get("/topicos").param("size", "100");
+            var exportacao = get("/topicos/exportacao");
+            if (filtro[0] != null) {
+                listagem.param("curso", filtro[0]);
+                exportacao.param("curso", filtro[0]);
+            }
+            if (filtro[1] != null) {
+                listagem.param("ano", filtro[1]);
+                exportacao.param("ano", filtro[1]);
+            }
+
+            List<Number> idsListagem = JsonPath.read(mvc.perform(listagem).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString(), "$.content[*].id");
+            var resultado = mvc.perform(exportacao).andExpect(request().asyncStarted()).andReturn();
+            resultado.getAsyncResult();
+            var idsExportacao = resultado.getResponse().getContentAsString().lines()
+                    .map(linha -> JsonPath.<Number>read(linha, "$.id").longValue())
+                    .toList();
+
+            assertThat(idsExportacao)
+                    .as("curso=%s, ano=%s", filtro[0], filtro[1])
+                    .containsExactlyInAnyOrderElementsOf(idsListagem.stream().map(Number::longValue).toList());
+        }
+    }
+
     // #################### TESTES DO GET /topicos/{id} ####################
 
     @Test
@@ -114,10 +274,27 @@ class TopicoControllerTest {
         var topico = criarTopicoPadraoNoBanco();
         mvc.perform(get("/topicos/" + topico.getId()))
                 .andExpect(status().isOk())
+                // Versão para o ETag + o tópico, ambos fora do cache na primeira leitura
+                .andExpect(executou(2))
                 .andExpect(jsonPath("$.id").value(topico.getId()))
                 .andExpect(jsonPath("$.titulo").value(topico.getTitulo()));
     }
 
+    @Test
+    @DisplayName("GET /topicos/{id} - Com token JWT, a segunda leitura não deveria consultar o banco (usuário e tópico em cache)")
+    void detalhar_cenario6_semConsultasComCache() throws Exception {
+        var usuario = usuarioRepository.findByLogin("Fulano de Tal").orElseThrow();
+        var token = "Bearer " + tokenService.gerarToken(usuario);
+        var topico = criarTopicoPadraoNoBanco();
+
+        mvc.perform(get("/topicos/" + topico.getId()).header("Authorization", token))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/topicos/" + topico.getId()).header("Authorization", token))
+                .andExpect(status().isOk())
+                .andExpect(executou(0));
+    }
+
     @Test
     @DisplayName("GET /topicos/{id} - Deveria retornar 404 para ID que não existe")
     @WithMockUser
@@ -125,6 +302,59 @@ class TopicoControllerTest {
         mvc.perform(get("/topicos/999")).andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("GET /topicos/{id} - Deveria refletir a atualização mesmo após o tópico estar em cache")
+    @WithUserDetails("Fulano de Tal")
+    void detalhar_cenario3_cacheInvalidado() throws Exception {
+        var topico = topicoRepository.save(new Topico(new DadosCadastroTopico(
+                "Título em Cache", "Mensagem em cache", "Fulano de Tal", "Software"
+        )));
+
+        mvc.perform(get("/topicos/" + topico.getId()))
+                .andExpect(jsonPath("$.titulo").value("Título em Cache"));
+
+        var dadosAtualizacao = new DadosAtualizacaoTopico("Título Novo", null, null);
+        mvc.perform(put("/topicos/" + topico.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(dadosAtualizacaoJson.write(dadosAtualizacao).getJson()))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/topicos/" + topico.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.titulo").value("Título Novo"));
+    }
+
+    @Test
+    @DisplayName("GET /topicos/{id} - Deveria retornar 304 quando o ETag informado ainda é válido")
+    @WithMockUser
+    void detalhar_cenario4_etag() throws Exception {
+        var topico = criarTopicoPadraoNoBanco();
+
+        var etag = mvc.perform(get("/topicos/" + topico.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/topicos/" + topico.getId()).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /topicos/{id} - Deveria registrar a quantidade de consultas SQL da requisição por endpoint")
+    @WithMockUser
+    void detalhar_cenario5_metricaConsultas() throws Exception {
+        var topico = criarTopicoPadraoNoBanco();
+        var resumo = meterRegistry.find("forumhub.hibernate.consultas").tags("method", "GET", "uri", "/topicos/{id}").summary();
+        var antes = resumo != null ? resumo.count() : 0;
+
+        mvc.perform(get("/topicos/" + topico.getId())).andExpect(status().isOk());
+
+        resumo = meterRegistry.get("forumhub.hibernate.consultas").tags("method", "GET", "uri", "/topicos/{id}").summary();
+        assertThat(resumo.count()).isEqualTo(antes + 1);
+        assertThat(resumo.max()).isGreaterThan(0);
+    }
+
     @Test
     @DisplayName("GET /topicos - Deveria retornar 200 e uma lista paginada de tópicos")
     @WithMockUser
@@ -138,12 +368,72 @@ class TopicoControllerTest {
                         .param("size", "1")
                         .param("page", "0"))
                 .andExpect(status().isOk())
+                .andExpect(executou(2))
                 .andExpect(jsonPath("$.content").isArray())
                 .andExpect(jsonPath("$.content.length()").value(1))
                 .andExpect(jsonPath("$.totalElements").value(2))
                 .andExpect(jsonPath("$.content[0].titulo").value("Tópico 1"));
     }
 
+    @Test
+    @DisplayName("GET /topicos/cursor - Deveria paginar por cursor sem repetir tópicos")
+    @WithMockUser
+    void listarPorCursor_cenario1() throws Exception {
+        // Arrange
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Tópico 1", "...", "Autor A", "Curso X")));
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Tópico 2", "...", "Autor B", "Curso X")));
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Tópico 3", "...", "Autor C", "Curso X")));
+
+        // Act & Assert
+        var primeiraPagina = mvc.perform(get("/topicos/cursor").param("tamanho", "2"))
+                .andExpect(status().isOk())
+                // Sem COUNT: só a consulta com LIMIT tamanho + 1
+                .andExpect(executou(1))
+                .andExpect(jsonPath("$.conteudo.length()").value(2))
+                .andExpect(jsonPath("$.conteudo[0].titulo").value("Tópico 1"))
+                .andExpect(jsonPath("$.temProximo").value(true))
+                .andReturn().getResponse().getContentAsString();
+
+        String proximoCursor = JsonPath.read(primeiraPagina, "$.proximoCursor");
+
+        mvc.perform(get("/topicos/cursor").param("tamanho", "2").param("cursor", proximoCursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.conteudo.length()").value(1))
+                .andExpect(jsonPath("$.conteudo[0].titulo").value("Tópico 3"))
+                .andExpect(jsonPath("$.temProximo").value(false));
+    }
+
+    @Test
+    @DisplayName("GET /topicos/cursor - Deveria retornar 400 para cursor inválido")
+    @WithMockUser
+    void listarPorCursor_cenario2() throws Exception {
+        mvc.perform(get("/topicos/cursor").param("cursor", "invalido"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /topicos/search - Deveria retornar os tópicos que contêm o termo, com destaque")
+    @WithMockUser
+    void buscar_cenario1() throws Exception {
+        // Arrange
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Erro no Hibernate", "Lazy loading falhando na sessão", "Autor A", "JPA")));
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Dúvida de CSS", "Como centralizar uma div?", "Autor B", "Front-end")));
+
+        // Act & Assert
+        mvc.perform(get("/topicos/search").param("q", "hibernate"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].titulo").value("Erro no <mark>Hibernate</mark>"));
+    }
+
+    @Test
+    @DisplayName("GET /topicos/search - Deveria retornar 400 quando não há termo pesquisável")
+    @WithMockUser
+    void buscar_cenario2() throws Exception {
+        mvc.perform(get("/topicos/search").param("q", "a"))
+                .andExpect(status().isBadRequest());
+    }
+
     // #################### TESTES DO PUT /topicos/{id} ####################
 
     @Test
@@ -164,7 +454,8 @@ class TopicoControllerTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(dadosAtualizacaoJson.write(dadosAtualizacao).getJson())
                 )
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(executou(2));
     }
 
     @Test
@@ -193,6 +484,24 @@ class TopicoControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    @DisplayName("PUT /topicos/{id} - Deveria retornar 409 ao atualizar para título e mensagem já existentes")
+    @WithUserDetails("Fulano de Tal")
+    void atualizar_cenario4_duplicado() throws Exception {
+        // Arrange
+        topicoRepository.save(new Topico(new DadosCadastroTopico("Tópico Existente", "Mensagem existente", "Fulano de Tal", "Java")));
+        var topico = topicoRepository.save(new Topico(new DadosCadastroTopico("Outro Tópico", "Outra mensagem", "Fulano de Tal", "Java")));
+
+        var dadosAtualizacao = new DadosAtualizacaoTopico("Tópico Existente", "Mensagem existente", null);
+
+        // Act & Assert
+        mvc.perform(put("/topicos/" + topico.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(dadosAtualizacaoJson.write(dadosAtualizacao).getJson()))
+                .andExpect(status().isConflict())
+                .andExpect(content().string("Tópico duplicado! Já existe um tópico com este título e mensagem."));
+    }
+
     // #################### TESTES DO DELETE /topicos/{id} ####################
 
     @Test
@@ -203,7 +512,9 @@ class TopicoControllerTest {
                 "Tópico a ser deletado", "...", "Fulano de Tal", "Testes"
         )));
 
-        mvc.perform(delete("/topicos/" + topico.getId())).andExpect(status().isNoContent());
+        mvc.perform(delete("/topicos/" + topico.getId()))
+                .andExpect(status().isNoContent())
+                .andExpect(executou(2));
         var topicoInativado = topicoRepository.findById(topico.getId()).orElse(null);
         assertThat(topicoInativado).isNotNull();
         assertThat(topicoInativado.isAtivo()).isFalse();
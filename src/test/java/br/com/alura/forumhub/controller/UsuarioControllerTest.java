@@ -17,6 +17,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import static br.com.alura.forumhub.infra.metricas.ConsultasSql.executou;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -97,6 +98,7 @@ public class UsuarioControllerTest {
         // ACT & ASSERT
         mvc.perform(get("/usuarios/me"))
                 .andExpect(status().isOk())
+                .andExpect(executou(1))
                 .andExpect(jsonPath("$.login").value("usuario.logado@email.com"));
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package br.com.alura.forumhub.infra.busca;
+
+import br.com.alura.forumhub.model.StatusTopico;
+import br.com.alura.forumhub.model.Topico;
+import br.com.alura.forumhub.repository.TopicoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IndiceTopicosTest {
+
+    private TopicoRepository repository;
+    private IndiceTopicos indice;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TopicoRepository.class);
+        when(repository.findByAtivoTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any())).thenReturn(List.of());
+        indice = new IndiceTopicos(repository, true, 100);
+        indice.construir();
+
+        indice.indexar(topico(1L, "Erro de sessão no Hibernate", "A sessão fecha antes do lazy loading", "Spring Boot"));
+        indice.indexar(topico(2L, "Configurar sessão do Spring Security", "Sessões stateless com JWT", "Spring Boot"));
+        indice.indexar(topico(3L, "Hibernate com MySQL", "Como mapear a sessão?", "Java"));
+    }
+
+    @Test
+    @DisplayName("Busca E deveria retornar apenas tópicos com todos os termos, ignorando acentos")
+    void buscar_operadorE() {
+        assertThat(indice.buscar("sessao hibernate", IndiceTopicos.Operador.E, null, 10)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    @DisplayName("Busca OU deveria retornar tópicos com qualquer um dos termos")
+    void buscar_operadorOu() {
+        assertThat(indice.buscar("jwt mysql", IndiceTopicos.Operador.OU, null, 10)).containsExactly(3L, 2L);
+    }
+
+    @Test
+    @DisplayName("Busca deveria filtrar pelo curso")
+    void buscar_filtroCurso() {
+        assertThat(indice.buscar("sessão", IndiceTopicos.Operador.E, "spring boot", 10)).containsExactly(2L, 1L);
+        assertThat(indice.buscar("jwt mysql", IndiceTopicos.Operador.OU, "java", 10)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Busca deveria parar no limite, ficando com os mais recentes")
+    void buscar_limite() {
+        assertThat(indice.buscar("sessão", IndiceTopicos.Operador.E, null, 2)).containsExactly(3L, 2L);
+        assertThat(indice.buscar("hibernate jwt", IndiceTopicos.Operador.OU, null, 1)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Atualização e remoção deveriam refletir imediatamente no índice")
+    void indexar_atualizacaoERemocao() {
+        var anterior = new IndiceTopicos.Conteudo("Hibernate com MySQL", "Como mapear a sessão?", "Java");
+        indice.reindexar(anterior, topico(3L, "PostgreSQL com JPA", "Outra dúvida", "Java"));
+        indice.remover(topico(1L, "Erro de sessão no Hibernate", "A sessão fecha antes do lazy loading", "Spring Boot"));
+
+        assertThat(indice.buscar("hibernate", IndiceTopicos.Operador.E, null, 10)).isEmpty();
+        assertThat(indice.buscar("mysql", IndiceTopicos.Operador.E, null, 10)).isEmpty();
+        assertThat(indice.buscar("postgresql", IndiceTopicos.Operador.E, null, 10)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("Alterações durante a construção deveriam prevalecer sobre o snapshot lido do banco")
+    void construir_alteracoesPendentes() {
+        var repositorioLento = mock(TopicoRepository.class);
+        var emConstrucao = new IndiceTopicos(repositorioLento, true, 100);
+        // O snapshot leu o conteúdo antigo, mas a atualização foi confirmada enquanto o índice era construído
+        when(repositorioLento.findByAtivoTrueAndIdGreaterThanOrderByIdAsc(anyLong(), any()))
+                .thenReturn(List.of(topico(1L, "Hibernate antigo", "Mensagem", "Java")));
+
+        emConstrucao.reindexar(new IndiceTopicos.Conteudo("Hibernate antigo", "Mensagem", "Java"),
+                topico(1L, "PostgreSQL novo", "Mensagem", "Java"));
+        emConstrucao.indexar(topico(2L, "Criado durante a construção", "Mensagem", "Java"));
+        assertThat(emConstrucao.isPronto()).isFalse();
+
+        emConstrucao.construir();
+
+        assertThat(emConstrucao.isPronto()).isTrue();
+        assertThat(emConstrucao.buscar("hibernate", IndiceTopicos.Operador.E, null, 10)).isEmpty();
+        assertThat(emConstrucao.buscar("postgresql", IndiceTopicos.Operador.E, null, 10)).containsExactly(1L);
+        assertThat(emConstrucao.buscar("mensagem", IndiceTopicos.Operador.E, null, 10)).containsExactly(2L, 1L);
+    }
+
+    private Topico topico(Long id, String titulo, String mensagem, String curso) {
+        var agora = LocalDateTime.now();
+        return new Topico(id, titulo, mensagem, true, agora, StatusTopico.NAO_RESPONDIDO, null, "Autor", curso, 0L, 0, agora);
+    }
+}
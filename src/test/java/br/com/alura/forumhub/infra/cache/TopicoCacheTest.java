@@ -0,0 +1,84 @@
+package br.com.alura.forumhub.infra.cache;
+
+import br.com.alura.forumhub.model.StatusTopico;
+import br.com.alura.forumhub.model.Topico;
+import br.com.alura.forumhub.repository.TopicoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TopicoCacheTest {
+
+    private TopicoRepository repository;
+    private TopicoCache cache;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(TopicoRepository.class);
+        cache = new TopicoCache(repository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    @DisplayName("Invalidação de outro tópico durante a carga não deveria impedir que o resultado fosse guardado")
+    void buscarPorId_invalidacaoDeOutroId() {
+        when(repository.findAtivoById(1L)).thenAnswer(invocacao -> {
+            cache.invalidar(2L);
+            return Optional.of(topico(1L, 0L));
+        });
+
+        cache.buscarPorId(1L);
+        cache.buscarPorId(1L);
+
+        verify(repository, times(1)).findAtivoById(1L);
+    }
+
+    @Test
+    @DisplayName("Invalidação do mesmo tópico durante a carga deveria descartar o resultado, possivelmente anterior ao commit")
+    void buscarPorId_invalidacaoDoMesmoId() {
+        when(repository.findAtivoById(1L))
+                .thenAnswer(invocacao -> {
+                    cache.invalidar(1L);
+                    return Optional.of(topico(1L, 0L));
+                })
+                .thenReturn(Optional.of(topico(1L, 1L)));
+
+        cache.buscarPorId(1L);
+        var recarregado = cache.buscarPorId(1L);
+
+        verify(repository, times(2)).findAtivoById(1L);
+        assertThat(recarregado).map(TopicoCache.TopicoEmCache::versao).contains(1L);
+        assertThat(cache.buscarVersao(1L)).contains(1L);
+    }
+
+    @Test
+    @DisplayName("Carga iniciada antes de outra do mesmo tópico não deveria substituir o resultado mais novo já guardado")
+    void buscarPorId_cargaPosteriorPrevalece() {
+        when(repository.findAtivoById(1L))
+                .thenAnswer(invocacao -> {
+                    // Outra requisição carrega e guarda a versão 2 enquanto esta ainda lê a versão 1
+                    cache.buscarPorId(1L);
+                    return Optional.of(topico(1L, 1L));
+                })
+                .thenReturn(Optional.of(topico(1L, 2L)));
+
+        cache.buscarPorId(1L);
+
+        assertThat(cache.buscarVersao(1L)).contains(2L);
+    }
+
+    private Topico topico(Long id, Long versao) {
+        var agora = LocalDateTime.now();
+        return new Topico(id, "Título", "Mensagem", true, agora, StatusTopico.NAO_RESPONDIDO, null, "Autor", "Java", versao, 0, agora);
+    }
+}
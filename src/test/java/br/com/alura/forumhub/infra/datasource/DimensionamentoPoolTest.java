@@ -0,0 +1,75 @@
+package br.com.alura.forumhub.infra.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.SystemEnvironmentPropertySource;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DimensionamentoPoolTest {
+
+    @Test
+    @DisplayName("Sem tamanho explícito, o perfil de produção dimensiona o pool pelos núcleos e com tamanho fixo")
+    void dimensionar_cenario1() {
+        var pool = new HikariDataSource();
+        var environment = new MockEnvironment().withProperty("forumhub.datasource.dimensionar-pool", "true");
+
+        DimensionamentoPool.aplicar(pool, environment);
+
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(Runtime.getRuntime().availableProcessors() * 2 + 1);
+        assertThat(pool.getMinimumIdle()).isEqualTo(pool.getMaximumPoolSize());
+    }
+
+    @Test
+    @DisplayName("Tamanho configurado explicitamente prevalece sobre o dimensionamento automático")
+    void dimensionar_cenario2() {
+        var pool = new HikariDataSource();
+        pool.setMaximumPoolSize(7);
+        var environment = new MockEnvironment()
+                .withProperty("forumhub.datasource.dimensionar-pool", "true")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "7");
+
+        DimensionamentoPool.aplicar(pool, environment);
+
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(pool.getMinimumIdle()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Tamanho explícito em camelCase ou variável de ambiente também prevalece")
+    void dimensionar_cenario4() {
+        var camelCase = new HikariDataSource();
+        camelCase.setMaximumPoolSize(7);
+        DimensionamentoPool.aplicar(camelCase, new MockEnvironment()
+                .withProperty("forumhub.datasource.dimensionar-pool", "true")
+                .withProperty("spring.datasource.hikari.maximumPoolSize", "7"));
+
+        var variavel = new HikariDataSource();
+        variavel.setMaximumPoolSize(7);
+        variavel.setMinimumIdle(2);
+        var environment = new MockEnvironment().withProperty("forumhub.datasource.dimensionar-pool", "true");
+        environment.getPropertySources().addFirst(new SystemEnvironmentPropertySource("systemEnvironment", Map.of(
+                "SPRING_DATASOURCE_HIKARI_MAXIMUMPOOLSIZE", "7",
+                "SPRING_DATASOURCE_HIKARI_MINIMUMIDLE", "2")));
+        DimensionamentoPool.aplicar(variavel, environment);
+
+        assertThat(camelCase.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(camelCase.getMinimumIdle()).isEqualTo(7);
+        assertThat(variavel.getMaximumPoolSize()).isEqualTo(7);
+        assertThat(variavel.getMinimumIdle()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Fora do perfil de produção os padrões do HikariCP são mantidos")
+    void dimensionar_cenario3() {
+        var pool = new HikariDataSource();
+
+        DimensionamentoPool.aplicar(pool, new MockEnvironment());
+
+        assertThat(pool.getMaximumPoolSize()).isEqualTo(10);
+    }
+}
@@ -0,0 +1,19 @@
+package br.com.alura.forumhub.infra.metricas;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// O MockMvc executa a requisição na thread do teste: o ConsultasPorRequisicaoFilter zera o ContadorConsultas
+// no início, e ao final o total continua disponível para conferir quantos comandos SQL o endpoint executou
+public final class ConsultasSql {
+
+    private ConsultasSql() {
+    }
+
+    public static ResultMatcher executou(int quantidade) {
+        return resultado -> assertThat(ContadorConsultas.total())
+                .as("comandos SQL executados em %s %s", resultado.getRequest().getMethod(), resultado.getRequest().getRequestURI())
+                .isEqualTo(quantidade);
+    }
+}
@@ -0,0 +1,112 @@
+package br.com.alura.forumhub.infra.replicacao;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dois bancos H2 em memória fazem o papel de primário e de réplicas; cada um responde com o próprio nome
+class RoteadorDataSourceTest {
+
+    private final Map<String, Duration> atrasos = new LinkedHashMap<>();
+
+    private RoteadorDataSource roteador;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transacaoEscrita;
+    private TransactionTemplate transacaoLeitura;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", banco("replica-1"));
+        replicas.put("replica-2", banco("replica-2"));
+        atrasos.put("replica-1", Duration.ZERO);
+        atrasos.put("replica-2", Duration.ZERO);
+
+        MedidorAtraso medidor = replica -> {
+            var nome = new JdbcTemplate(replica).queryForObject("SELECT nome FROM origem", String.class);
+            var atraso = atrasos.get(nome);
+            if (atraso == null) {
+                throw new SQLException("Réplica indisponível");
+            }
+            return atraso;
+        };
+        roteador = new RoteadorDataSource(banco(RoteadorDataSource.PRIMARIO), replicas, medidor, Duration.ofSeconds(2), Duration.ofHours(1));
+
+        var dataSource = new LazyConnectionDataSourceProxy(roteador);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        var transactionManager = new DataSourceTransactionManager(dataSource);
+        transacaoEscrita = new TransactionTemplate(transactionManager);
+        transacaoLeitura = new TransactionTemplate(transactionManager);
+        transacaoLeitura.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        roteador.close();
+    }
+
+    @Test
+    @DisplayName("Deveria usar o primário fora de transação e em transações de escrita")
+    void escritaNoPrimario() {
+        assertThat(origem()).isEqualTo("primario");
+        assertThat(transacaoEscrita.<String>execute(status -> origem())).isEqualTo("primario");
+    }
+
+    @Test
+    @DisplayName("Deveria alternar entre as réplicas nas transações somente leitura")
+    void leituraNasReplicas() {
+        var primeira = transacaoLeitura.execute(status -> origem());
+        var segunda = transacaoLeitura.execute(status -> origem());
+
+        assertThat(primeira).startsWith("replica-");
+        assertThat(segunda).startsWith("replica-").isNotEqualTo(primeira);
+    }
+
+    @Test
+    @DisplayName("Deveria retirar da rotação a réplica com atraso acima do limite")
+    void replicaAtrasadaForaDaRotacao() {
+        atrasos.put("replica-1", Duration.ofSeconds(30));
+        roteador.verificarReplicas();
+
+        assertThat(roteador.isSaudavel("replica-1")).isFalse();
+        assertThat(transacaoLeitura.<String>execute(status -> origem())).isEqualTo("replica-2");
+        assertThat(transacaoLeitura.<String>execute(status -> origem())).isEqualTo("replica-2");
+    }
+
+    @Test
+    @DisplayName("Deveria ler do primário quando nenhuma réplica está saudável")
+    void semReplicasSaudaveisLeNoPrimario() {
+        atrasos.put("replica-1", Duration.ofMinutes(5));
+        atrasos.remove("replica-2");
+        roteador.verificarReplicas();
+
+        assertThat(transacaoLeitura.<String>execute(status -> origem())).isEqualTo("primario");
+    }
+
+    private String origem() {
+        return jdbcTemplate.queryForObject("SELECT nome FROM origem", String.class);
+    }
+
+    private static DataSource banco(String nome) {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + nome + ";DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS origem (nome VARCHAR(20))");
+        jdbc.update("DELETE FROM origem");
+        jdbc.update("INSERT INTO origem (nome) VALUES (?)", nome);
+        return dataSource;
+    }
+}
@@ -0,0 +1,117 @@
+package br.com.alura.forumhub.infra.security;
+
+import br.com.alura.forumhub.infra.exception.SobrecargaException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CodificadorSenhaLimitadoTest {
+
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private final CountDownLatch ocupado = new CountDownLatch(1);
+
+    private CodificadorSenhaLimitado codificador;
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        if (codificador != null) {
+            codificador.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Deveria codificar e conferir a senha usando o BCrypt delegado")
+    void codificarEConferir() {
+        codificador = new CodificadorSenhaLimitado(new BCryptPasswordEncoder(4), 1, 1, Duration.ofSeconds(5), null);
+
+        var hash = codificador.encode("senha123");
+
+        assertThat(codificador.matches("senha123", hash)).isTrue();
+        assertThat(codificador.matches("outra", hash)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Deveria rejeitar com SobrecargaException quando a thread e a fila estão ocupadas")
+    void rejeitarComFilaCheia() throws Exception {
+        codificador = new CodificadorSenhaLimitado(new CodificadorBloqueante(), 1, 1, Duration.ofSeconds(5), null);
+        var chamadores = Executors.newFixedThreadPool(2);
+        try {
+            chamadores.submit(() -> codificador.encode("ocupa a thread"));
+            assertThat(ocupado.await(5, TimeUnit.SECONDS)).isTrue();
+            chamadores.submit(() -> codificador.encode("ocupa a fila"));
+            Thread.sleep(100);
+
+            assertThatThrownBy(() -> codificador.encode("descartada")).isInstanceOf(SobrecargaException.class);
+        } finally {
+            liberar.countDown();
+            chamadores.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Deveria desistir com SobrecargaException quando a espera passa do limite")
+    void desistirAposEsperaMaxima() {
+        codificador = new CodificadorSenhaLimitado(new CodificadorBloqueante(), 1, 1, Duration.ofMillis(50), null);
+
+        assertThatThrownBy(() -> codificador.matches("senha", "hash")).isInstanceOf(SobrecargaException.class);
+    }
+
+    @Test
+    @DisplayName("A espera recomendada deveria cobrir a fila à frente e crescer com ela, não um limite fixo")
+    void esperaRecomendadaProporcionalAFila() {
+        // Hash de ~10ms: fila de 8 em 4 threads = 2 hashes à frente + o próprio, x2 de folga = ~60ms
+        var filaCurta = CodificadorSenhaLimitado.esperaRecomendada(new CodificadorLento(10), 4, 8);
+        var filaLonga = CodificadorSenhaLimitado.esperaRecomendada(new CodificadorLento(10), 4, 64);
+
+        assertThat(filaCurta).isBetween(Duration.ofMillis(60), Duration.ofMillis(500));
+        assertThat(filaLonga).isGreaterThanOrEqualTo(Duration.ofMillis(340)).isGreaterThan(filaCurta);
+    }
+
+    private class CodificadorBloqueante implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence senha) {
+            ocupado.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return senha.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence senha, String senhaCodificada) {
+            return encode(senha).equals(senhaCodificada);
+        }
+    }
+
+    private record CodificadorLento(long milissegundos) implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence senha) {
+            return senha.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence senha, String senhaCodificada) {
+            try {
+                Thread.sleep(milissegundos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return senha.toString().equals(senhaCodificada);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package br.com.alura.forumhub.repository;
+
+import br.com.alura.forumhub.model.StatusTopico;
+import br.com.alura.forumhub.model.Topico;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TopicoRepositoryTest {
+
+    @Autowired
+    private TopicoRepository topicoRepository;
+
+    @Autowired
+    private RespostaRepository respostaRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        respostaRepository.deleteAll();
+        topicoRepository.deleteAll();
+
+        List<Topico> topicos = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            var dataCriacao = LocalDateTime.of(2020 + i % 5, 1 + i % 12, 1 + i % 28, 10, 0);
+            topicos.add(new Topico(null, "Tópico " + i, "Mensagem " + i, i % 10 != 0, dataCriacao,
+                    StatusTopico.NAO_RESPONDIDO, null, "Autor", "Curso " + i % 15, null, 0, dataCriacao));
+        }
+        topicoRepository.saveAll(topicos);
+        jdbcTemplate.execute("ANALYZE TABLE topicos");
+    }
+
+    // EXPLAIN sobre o SQL que o Hibernate gera a partir da mesma Specification usada em GET /topicos
+    @Test
+    @DisplayName("Filtro por curso e ano deveria usar o índice (ativo, curso, data_criacao)")
+    void planoDeExecucao_filtroCursoEAno() {
+        var sql = sqlGerado(FiltrosTopico.ativosPorCursoEAno("Curso 3", 2023));
+
+        assertThat(sql).doesNotContainIgnoringCase("year(");
+        var plano = explicar(sql, "Curso 3", LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 1, 0, 0), 10);
+        assertThat(plano.get("key")).isEqualTo("idx_topicos_ativo_curso_data_criacao");
+    }
+
+    @Test
+    @DisplayName("Listagem padrão ordenada por data deveria usar o índice (ativo, data_criacao)")
+    void planoDeExecucao_listagemPadrao() {
+        var sql = sqlGerado(FiltrosTopico.ativosPorCursoEAno(null, null));
+
+        var plano = explicar(sql, 10);
+        assertThat(plano.get("key")).isEqualTo("idx_topicos_ativo_data_criacao");
+    }
+
+    @Test
+    @DisplayName("Nova resposta com data anterior à última atividade não deveria fazer a atividade retroceder")
+    void registrarNovaResposta_ultimaAtividadeSoAvanca() {
+        var atividade = LocalDateTime.of(2024, 6, 1, 10, 0);
+        var topico = topicoRepository.save(new Topico(null, "Tópico com atividade", "Mensagem", true, atividade,
+                StatusTopico.NAO_RESPONDIDO, null, "Autor", "Java", null, 0, atividade));
+        var transacao = new TransactionTemplate(transactionManager);
+
+        transacao.executeWithoutResult(status -> topicoRepository.registrarNovaResposta(topico.getId(), atividade.minusDays(1)));
+        var aposRespostaAtrasada = topicoRepository.findById(topico.getId()).orElseThrow();
+        assertThat(aposRespostaAtrasada.getUltimaAtividade()).isEqualTo(atividade);
+        assertThat(aposRespostaAtrasada.getTotalRespostas()).isEqualTo(1);
+
+        transacao.executeWithoutResult(status -> topicoRepository.registrarNovaResposta(topico.getId(), atividade.plusDays(1)));
+        assertThat(topicoRepository.findById(topico.getId()).orElseThrow().getUltimaAtividade()).isEqualTo(atividade.plusDays(1));
+    }
+
+    // Executa a Specification numa sessão própria com um StatementInspector que guarda o SQL preparado
+    private String sqlGerado(Specification<Topico> spec) {
+        List<String> comandos = new ArrayList<>();
+        try (var sessao = entityManagerFactory.unwrap(SessionFactory.class)
+                .withOptions()
+                .statementInspector(sql -> {
+                    comandos.add(sql);
+                    return sql;
+                })
+                .openSession()) {
+            var criteriaBuilder = sessao.getCriteriaBuilder();
+            var query = criteriaBuilder.createQuery(Topico.class);
+            var root = query.from(Topico.class);
+            query.where(spec.toPredicate(root, query, criteriaBuilder))
+                    .orderBy(criteriaBuilder.asc(root.get("dataCriacao")));
+            sessao.createQuery(query).setMaxResults(10).getResultList();
+        }
+        assertThat(comandos).hasSize(1);
+        return comandos.get(0);
+    }
+
+    private Map<String, Object> explicar(String sql, Object... parametros) {
+        assertThat(sql.chars().filter(c -> c == '?').count())
+                .as("parâmetros de %s", sql)
+                .isEqualTo(parametros.length);
+        return jdbcTemplate.queryForMap("EXPLAIN " + sql, parametros);
+    }
+}